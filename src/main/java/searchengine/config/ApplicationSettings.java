@@ -1,5 +1,7 @@
 package searchengine.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+
 import lombok.Data;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +14,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import searchengine.dao.SiteRepository;
+import searchengine.dto.indexing.HttpPage;
+import searchengine.model.ContentConverter;
 import searchengine.model.Index;
 import searchengine.model.Lemma;
 import searchengine.model.Page;
@@ -66,11 +70,106 @@ public class ApplicationSettings {
      */
     private Integer tasksPerSite = 1;
 
+    /**
+     * Maximum number of http connections kept by all sites indexing.
+     */
+    private Integer httpPoolSize = 200;
+
+    /**
+     * Maximum number of http connections kept to one host.
+     */
+    private Integer httpPoolSizePerHost = 20;
+
+    /**
+     * Http connection establishing timeout.
+     * <br>
+     * Value of milliseconds, 0 - no timeout.
+     */
+    private Integer connectTimeout = 10000;
+
+    /**
+     * Http response data waiting timeout.
+     * <br>
+     * Value of milliseconds, 0 - no timeout.
+     */
+    private Integer socketTimeout = 0;
+
+    /**
+     * Maximum size of decoded page body.
+     * <br>
+     * Value of bytes, 0 - no limit. Larger pages are not indexed.
+     */
+    private Integer maxPageSize = 10485760;
+
+    /**
+     * Download pages by non-blocking http client.
+     * <br>
+     * One task sends requests of a site, {@link #tasksPerSite} limits number of requests in progress
+     * and of pool workers saving responses.
+     */
+    private Boolean asyncFetch = false;
+
+    /**
+     * Number of concurrent tasks parsing and saving pages of a site.
+     * <br>
+     * Number of processors divided among the sites if the property is not configured.
+     * Index tasks of all sites are limited by half of the database connection pool.
+     */
+    private Integer indexTasksPerSite;
+
+    /**
+     * Add links of sitemap files to the link queue at the start of site indexing.
+     * <br>
+     * In update mode pages not modified since previous indexing according to the sitemap are not downloaded.
+     */
+    private Boolean siteMapSeeding = true;
+
+    /**
+     * Maximum number of links of a site waiting for downloading, kept in memory.
+     * <br>
+     * Other links are kept in a temporary file.
+     */
+    private Integer linkQueueSize = 100000;
+
+    /**
+     * Maximum number of downloaded pages of a site waiting for parsing.
+     */
+    private Integer pageQueueSize = 20;
+
     /**
      * Maximum search response snippet length.
      */
     private Integer snippetSize = 160;
 
+    /**
+     * Maximum number of records of a database batch statement.
+     */
+    private Integer batchSize = 1000;
+
+    /**
+     * Maximum number of lemmas cached by indexing process of a site.
+     */
+    private Integer lemmaCacheSize = 100000;
+
+    /**
+     * Store page content and plain text compressed.
+     * <br>
+     * Plain content and text of existing pages are compressed at application start.
+     */
+    private Boolean compressContent = false;
+
+    /**
+     * Keep inverted index of indexed sites in memory to serve search requests with no database index access.
+     */
+    private Boolean memoryIndex = false;
+
+    /**
+     * Directory of memory mapped inverted index segment files to serve search requests with.
+     * <br>
+     * Segment files are not used if the property is not configured.
+     */
+    private String segmentPath;
+
     /**
      * List of every site local properties.
      */
@@ -87,12 +186,36 @@ public class ApplicationSettings {
         int threadCount = 0;
 
         for (SiteSettings site : sites) {
-            threadCount += site.getTasksPerSite() * 2 + 1;
+            // Asynchronous fetch task and workers saving its responses or downloading tasks
+            threadCount += (asyncFetch ? 1 : 0) + site.getTasksPerSite() + countIndexTasksPerSite() + 1;
         }
 
         return threadCount;
     }
 
+    /**
+     * Number of concurrent tasks parsing and saving pages of a site.
+     * <br>
+     * Index tasks hold database connections while saving pages, so the tasks of all sites
+     * are limited by half of the database connection pool, the other half is left to page downloading
+     * and service requests. A site has at least one index task.
+     *
+     * @return Number of index tasks per site.
+     */
+    public int countIndexTasksPerSite() {
+        int siteCount = Math.max(1, sites.size());
+        int taskCount = indexTasksPerSite != null
+                ? indexTasksPerSite
+                : Runtime.getRuntime().availableProcessors() / siteCount;
+
+        if (jdbcTemplate != null && jdbcTemplate.getDataSource() instanceof HikariDataSource) {
+            int poolSize = ((HikariDataSource) jdbcTemplate.getDataSource()).getMaximumPoolSize();
+            taskCount = Math.min(taskCount, poolSize / 2 / siteCount);
+        }
+
+        return Math.max(1, taskCount);
+    }
+
     // Application initialization
 
     @Autowired
@@ -109,6 +232,9 @@ public class ApplicationSettings {
     private void initStaticFields() {
         SiteSettings.setApplicationSettings(this);
 
+        ContentConverter.setCompress(compressContent);
+        HttpPage.configure(httpPoolSize, httpPoolSizePerHost, connectTimeout, socketTimeout, maxPageSize);
+
         Site.setJdbcTemplate(jdbcTemplate);
         Page.setJdbcTemplate(jdbcTemplate);
         Lemma.setJdbcTemplate(jdbcTemplate);
@@ -0,0 +1,22 @@
+package searchengine.dao;
+
+/**
+ * Index table projection of a page rank of a lemma.
+ * <br>
+ * Used to read index records with no entity objects creation.
+ */
+public interface IndexRank {
+    /**
+     * Returns page id of the index record.
+     *
+     * @return Page id.
+     */
+    Integer getPageId();
+
+    /**
+     * Returns rank of the lemma on the page.
+     *
+     * @return Number of lemma occurrences on the page.
+     */
+    Float getRank();
+}
@@ -1,13 +1,18 @@
 package searchengine.dao;
 
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import org.springframework.stereotype.Repository;
 
 import searchengine.model.Index;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Index table DAO interface.
@@ -59,4 +64,17 @@ public interface IndexRepository extends CrudRepository<Index, Integer> {
      * @return List of the index records.
      */
     List<Index> findAllByLemmaId(Integer lemmaId);
+
+    /**
+     * Streams page ranks of index records belong to any lemma of the list.
+     * <br>
+     * Rows are read from database one by one, the method must be called within a transaction
+     * and the stream returned must be closed.
+     *
+     * @param lemmaIds Lemma id list.
+     *
+     * @return Stream of page id and rank projections.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    Stream<IndexRank> streamAllByLemmaIdIn(Collection<Integer> lemmaIds);
 }
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 
 import searchengine.model.Lemma;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -60,4 +61,14 @@ public interface LemmaRepository extends CrudRepository<Lemma, Integer> {
      * @return Optional object of the record found.
      */
     Optional<Lemma> findBySiteIdAndLemma(Integer siteId, String lemma);
+
+    /**
+     * Returns list of lemma records of any lemma of the list belong to any site of the list.
+     *
+     * @param siteIds Site id list.
+     * @param lemmas Lemma list.
+     *
+     * @return List of the lemma records.
+     */
+    List<Lemma> findAllBySiteIdInAndLemmaIn(Collection<Integer> siteIds, Collection<String> lemmas);
 }
@@ -0,0 +1,15 @@
+package searchengine.dao;
+
+/**
+ * Page table projection of a page id.
+ * <br>
+ * Used to check which pages of search results still exist with no page data loading.
+ */
+public interface PageId {
+    /**
+     * Returns id of the page record.
+     *
+     * @return Page id.
+     */
+    Integer getId();
+}
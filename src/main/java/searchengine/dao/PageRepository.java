@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 
 import searchengine.model.Page;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -80,4 +81,24 @@ public interface PageRepository extends CrudRepository<Page, Integer> {
      * @return List of the page records.
      */
     List<Page> findAllBySiteIdAndCode(Integer siteId, Integer code);
+
+    /**
+     * Returns title and plain text projections of page records of the id list.
+     * <br>
+     * Page content is not loaded.
+     *
+     * @param ids Page id list.
+     *
+     * @return List of the page projections.
+     */
+    List<PageText> findAllByIdIn(Collection<Integer> ids);
+
+    /**
+     * Returns id projections of existing page records of the id list.
+     *
+     * @param ids Page id list.
+     *
+     * @return List of the page projections.
+     */
+    List<PageId> findIdsByIdIn(Collection<Integer> ids);
 }
@@ -0,0 +1,43 @@
+package searchengine.dao;
+
+/**
+ * Page table projection of a page title and plain text.
+ * <br>
+ * Used to make search response items with no page content loading.
+ */
+public interface PageText {
+    /**
+     * Returns id of the page record.
+     *
+     * @return Page id.
+     */
+    Integer getId();
+
+    /**
+     * Returns site id of the page record.
+     *
+     * @return Site id.
+     */
+    Integer getSiteId();
+
+    /**
+     * Returns absolute path to the page within the site.
+     *
+     * @return Page path, started with slash.
+     */
+    String getPath();
+
+    /**
+     * Returns title of the page.
+     *
+     * @return Page title, null if the page is not parsed.
+     */
+    String getTitle();
+
+    /**
+     * Returns plain text of the page content.
+     *
+     * @return Page text, null if the page is not parsed.
+     */
+    String getText();
+}
@@ -2,34 +2,80 @@ package searchengine.dto.indexing;
 
 import lombok.Getter;
 
+import org.apache.http.HttpConnection;
 import org.apache.http.HttpEntity;
 import org.apache.http.ParseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.DeflateInputStream;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustAllStrategy;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.entity.ContentType;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.util.EntityUtils;
 
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.Socket;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Downloading http page class.
+ * <br>
+ * All pages are downloaded by one pooled http client, keeping connections alive for reuse.
+ * <br>
+ * Compressed transfer of gzip and deflate encodings is requested,
+ * the body is decoded to a string while it is received and is limited by size.
  */
 @Getter
 public class HttpPage {
     private String request;             // For log purposes
     private int code;
-    private byte[] bodyAsBytes;
+    private String etag;                // ETag response header or null
+    private String lastModified;        // Last-Modified response header or null
     private String body;
 
+    /**
+     * Empty page constructor for asynchronous downloading.
+     */
+    private HttpPage() {}
+
     /**
      * String page URI constructor.
      * <br>
@@ -53,70 +99,656 @@ public class HttpPage {
      * @param uri Page URI to download from.
      * @param headers List of http request headers in the form of "header-name:header-value".
      *
-     * @throws ParseException - the page can't be indexed due to mime type or other reasons.
+     * @throws ParseException - the page can't be indexed due to mime type, size or other reasons.
      * @throws IOException subclasses - in the case of network or http protocol errors.
      */
     public HttpPage(URI uri, String[] headers) throws Exception {
-        try (
-                // Allow invalid server SSL certificate
-                final CloseableHttpClient httpclient = HttpClients
-                        .custom()
-                        .setSSLContext(
-                                new SSLContextBuilder()
-                                        .loadTrustMaterial(null, TrustAllStrategy.INSTANCE)
-                                        .build()
-                        )
-                        .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE)
-                        .build()
-        ) {
-            final HttpGet httpget = new HttpGet(uri);
+        final CloseableHttpClient httpclient = getSyncClient();
+        final HttpClientContext context = HttpClientContext.create();
+        final HttpGet httpget = new HttpGet(uri);
 
-            for (String header : headers) {
-                String[] str = header.split("\\s*:\\s*", 2);
+        for (String header : headers) {
+            String[] str = splitHeader(header);
+
+            if (str != null) {
+                httpget.addHeader(str[0], str[1]);
+            }
+        }
+
+        request = httpget.getRequestLine().toString()
+                + "\r\n" + Arrays.toString(httpget.getAllHeaders());
+
+        requestCount.incrementAndGet();
+
+        httpclient.execute(httpget,
+                resp -> {
+                    code = resp.getStatusLine().getStatusCode();
+                    etag = resp.containsHeader("ETag") ? resp.getFirstHeader("ETag").getValue() : null;
+                    lastModified = resp.containsHeader("Last-Modified")
+                            ? resp.getFirstHeader("Last-Modified").getValue()
+                            : null;
+
+                    HttpConnection connection = context.getConnection();
+
+                    if (connection != null && connection.getMetrics().getRequestCount() > 1) {
+                        reusedCount.incrementAndGet();
+                    }
+
+                    HttpEntity entity = resp.getEntity();
+
+                    if (entity == null) {                           // Response of status line only (304)
+                        return this;
+                    }
+
+                    ContentType contentType = ContentType.getOrDefault(entity);
+
+                    Charset charset = contentType.getCharset();
+                    String mimeType = contentType.getMimeType();
+
+                    if (charset == null && "text/plain".equals(mimeType)) {
+                        charset = StandardCharsets.UTF_8;           // Default charset for text
+                    }
+
+                    if (charset == null
+                            || mimeType == null
+                            || !(
+                                    mimeType.matches("^text/.*")
+                                    || mimeType.matches(".*xml$")
+                            )
+                    ) {                                             // Not indexed mime/charset
+                        EntityUtils.consume(entity);
+                        throw new ParseException(mimeType + " " + charset);
+                    }
+
+                    InputStream stream = entity.getContent();  // Decompressed by http client
+
+                    try {
+                        body = readBody(stream, charset);
+                    } catch (ParseException e) {                // Do not receive the rest of the page
+                        httpget.abort();
+                        throw e;
+                    }
+
+                    return this;
+                },
+                context
+        );
+    }
+
+    /**
+     * Creates body receiver of the response.
+     * <br>
+     * Response of not indexed mime type or charset is discarded.
+     * The body bytes are collected with no thread blocking, their number is limited by the page size limit.
+     *
+     * @param info Response status code and headers.
+     * @param charsets One element array to return body charset, null if the body is not received.
+     * @param errors One element array to return not indexed mime type and charset description.
+     *
+     * @return Body receiver.
+     */
+    private HttpResponse.BodySubscriber<byte[]> subscribe(
+            HttpResponse.ResponseInfo info,
+            Charset[] charsets,
+            String[] errors
+    ) {
+        code = info.statusCode();
+        etag = info.headers().firstValue("ETag").orElse(null);
+        lastModified = info.headers().firstValue("Last-Modified").orElse(null);
+
+        if (code == 304 || code == 204) {                           // Response of status line only
+            return HttpResponse.BodySubscribers.replacing(null);
+        }
+
+        ContentType contentType = info.headers()
+                .firstValue("Content-Type")
+                .map(ContentType::parse)
+                .orElse(ContentType.DEFAULT_BINARY);
+
+        Charset charset = contentType.getCharset();
+        String mimeType = contentType.getMimeType();
+
+        if (charset == null && "text/plain".equals(mimeType)) {
+            charset = StandardCharsets.UTF_8;                       // Default charset for text
+        }
+
+        if (charset == null
+                || mimeType == null
+                || !(
+                        mimeType.matches("^text/.*")
+                        || mimeType.matches(".*xml$")
+                )
+        ) {                                                         // Not indexed mime/charset
+            errors[0] = mimeType + " " + charset;
+            return HttpResponse.BodySubscribers.replacing(null);
+        }
 
-                if (str.length == 2 && !str[0].isBlank() && !str[1].isBlank()) {
-                    httpget.addHeader(str[0], str[1]);
+        charsets[0] = charset;
+        return new LimitedBodySubscriber(maxPageSize, socketTimeout);
+    }
+
+    // Static methods
+
+    private static int poolSize = 200;
+    private static int poolSizePerHost = 20;
+    private static int connectTimeout = 10000;
+    private static int socketTimeout = 0;
+    private static int maxPageSize = 10485760;
+
+    private static volatile CloseableHttpClient syncClient = null;
+    private static volatile HttpClient asyncClient = null;
+
+    private static final AtomicLong requestCount = new AtomicLong();
+    private static final AtomicLong reusedCount = new AtomicLong();
+
+    /**
+     * Sets connection pool and timeout properties of http clients.
+     * <br>
+     * Clients already created are closed, new clients are created with the properties on demand.
+     *
+     * @param poolSize Maximum number of connections.
+     * @param poolSizePerHost Maximum number of connections to one host.
+     * @param connectTimeout Connection establishing timeout in ms, 0 - no timeout.
+     * @param socketTimeout Response data waiting timeout in ms, 0 - no timeout.
+     * @param maxPageSize Maximum number of decoded page body bytes, 0 - no limit.
+     */
+    public static synchronized void configure(
+            int poolSize,
+            int poolSizePerHost,
+            int connectTimeout,
+            int socketTimeout,
+            int maxPageSize
+    ) {
+        HttpPage.poolSize = poolSize;
+        HttpPage.poolSizePerHost = poolSizePerHost;
+        HttpPage.connectTimeout = connectTimeout;
+        HttpPage.socketTimeout = socketTimeout;
+        HttpPage.maxPageSize = maxPageSize;
+
+        if (syncClient != null) {
+            try {
+                syncClient.close();
+            } catch (IOException ignored) {}
+        }
+
+        syncClient = null;
+        asyncClient = null;
+    }
+
+    /**
+     * Returns number of requests sent by both http clients.
+     *
+     * @return Number of requests.
+     */
+    public static long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Returns number of requests sent by pooled http client through a connection of previous requests.
+     * <br>
+     * Requests of the non-blocking client are not counted, it does not expose its connections.
+     *
+     * @return Number of requests.
+     */
+    public static long getReusedCount() {
+        return reusedCount.get();
+    }
+
+    /**
+     * Response body reader.
+     *
+     * @param <T> Type of reading result.
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        /**
+         * Reads response body.
+         *
+         * @param stream Decoded body bytes.
+         *
+         * @return Reading result.
+         *
+         * @throws Exception Reading error.
+         */
+        T read(InputStream stream) throws Exception;
+    }
+
+    /**
+     * Downloads resource of any mime type by pooled http client and reads its body as a stream.
+     * <br>
+     * The body size is not limited.
+     *
+     * @param uri Resource URI to download from.
+     * @param headers List of http request headers in the form of "header-name:header-value".
+     * @param reader Body reader.
+     * @param <T> Type of reading result.
+     *
+     * @return Reading result or null if response code is not 200.
+     *
+     * @throws Exception Network, http protocol or reading errors.
+     */
+    public static <T> T read(URI uri, String[] headers, BodyReader<T> reader) throws Exception {
+        final HttpGet httpget = new HttpGet(uri);
+
+        for (String header : headers) {
+            String[] str = splitHeader(header);
+
+            if (str != null) {
+                httpget.addHeader(str[0], str[1]);
+            }
+        }
+
+        requestCount.incrementAndGet();
+
+        return getSyncClient().execute(httpget, resp -> {
+            HttpEntity entity = resp.getEntity();
+
+            if (resp.getStatusLine().getStatusCode() != 200 || entity == null) {
+                return null;
+            }
+
+            try (InputStream stream = entity.getContent()) {
+                return reader.read(stream);
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns pooled http client shared by all downloads.
+     *
+     * @return Http client.
+     *
+     * @throws Exception SSL context initialization error.
+     */
+    private static CloseableHttpClient getSyncClient() throws Exception {
+        if (syncClient == null) {
+            synchronized (HttpPage.class) {
+                if (syncClient == null) {
+                    // Allow invalid server SSL certificate
+                    SSLContext sslContext = new SSLContextBuilder()
+                            .loadTrustMaterial(null, TrustAllStrategy.INSTANCE)
+                            .build();
+
+                    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                            RegistryBuilder.<ConnectionSocketFactory>create()
+                                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                                    .register("https", new SSLConnectionSocketFactory(
+                                            sslContext,
+                                            NoopHostnameVerifier.INSTANCE
+                                    ))
+                                    .build()
+                    );
+                    connectionManager.setMaxTotal(poolSize);
+                    connectionManager.setDefaultMaxPerRoute(poolSizePerHost);
+
+                    syncClient = HttpClients
+                            .custom()
+                            .setConnectionManager(connectionManager)
+                            .setDefaultRequestConfig(RequestConfig
+                                    .custom()
+                                    .setConnectTimeout(connectTimeout)
+                                    .setConnectionRequestTimeout(connectTimeout)
+                                    .setSocketTimeout(socketTimeout)
+                                    .build()
+                            )
+                            .evictExpiredConnections()
+                            .evictIdleConnections(30, TimeUnit.SECONDS)
+                            .build();
                 }
             }
+        }
 
-            request = httpget.getRequestLine().toString()
-                    + "\r\n" + Arrays.toString(httpget.getAllHeaders());
+        return syncClient;
+    }
 
-            httpclient.execute(httpget,
-                    resp -> {
-                        code = resp.getStatusLine().getStatusCode();
-                        HttpEntity entity = resp.getEntity();
+    /**
+     * Returns non-blocking http client shared by all asynchronous downloads.
+     *
+     * @return Http client.
+     *
+     * @throws Exception SSL context initialization error.
+     */
+    private static HttpClient getAsyncClient() throws Exception {
+        if (asyncClient == null) {
+            synchronized (HttpPage.class) {
+                if (asyncClient == null) {
+                    // Allow invalid server SSL certificate, including its host name like the synchronous client
+                    SSLContext sslContext = SSLContext.getInstance("TLS");
+                    sslContext.init(null, new TrustManager[] {new TrustAllManager()}, null);
 
-                        if (entity == null) {                           // Response of status line only (304)
-                            return this;
-                        }
+                    HttpClient.Builder builder = HttpClient.newBuilder()
+                            .sslContext(sslContext)
+                            .followRedirects(HttpClient.Redirect.NORMAL);
+
+                    if (connectTimeout > 0) {
+                        builder.connectTimeout(Duration.ofMillis(connectTimeout));
+                    }
 
-                        ContentType contentType = ContentType.getOrDefault(entity);
+                    asyncClient = builder.build();
+                }
+            }
+        }
 
-                        Charset charset = contentType.getCharset();
-                        String mimeType = contentType.getMimeType();
+        return asyncClient;
+    }
 
-                        if (charset == null && "text/plain".equals(mimeType)) {
-                            charset = StandardCharsets.UTF_8;           // Default charset for text
+    /**
+     * Downloads the page by non-blocking http client.
+     * <br>
+     * No thread waits for the response, the body is collected in memory and decoded on completion.
+     * <br>
+     * Socket timeout limits waiting for the response headers and each pause of the body receiving.
+     *
+     * @param uri Page URI to download from.
+     * @param headers List of http request headers in the form of "header-name:header-value".
+     *
+     * @return Future of the page downloaded.
+     * Completes exceptionally by {@link ParseException} - the page can't be indexed due to mime type or other reasons,
+     * <br>by {@link IOException} subclasses - in the case of network or http protocol errors.
+     */
+    public static CompletableFuture<HttpPage> download(URI uri, String[] headers) {
+        try {
+            HttpPage page = new HttpPage();
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                    .GET()
+                    .header("Accept-Encoding", "gzip, deflate");
+
+            if (socketTimeout > 0) {
+                builder.timeout(Duration.ofMillis(socketTimeout));      // Waiting for response headers
+            }
+
+            for (String header : headers) {
+                String[] str = splitHeader(header);
+
+                if (str != null) {
+                    builder.header(str[0], str[1]);
+                }
+            }
+
+            HttpRequest httpRequest = builder.build();
+            page.request = "GET " + uri + "\r\n" + httpRequest.headers().map();
+
+            requestCount.incrementAndGet();
+
+            Charset[] charsets = new Charset[1];
+            String[] errors = new String[1];
+
+            return getAsyncClient()
+                    .sendAsync(httpRequest, info -> page.subscribe(info, charsets, errors))
+                    .thenApply(response -> {
+                        if (errors[0] != null) {                    // Not indexed mime/charset
+                            throw new ParseException(errors[0]);
                         }
 
-                        if (charset == null
-                                || mimeType == null
-                                || !(
-                                        mimeType.matches("^text/.*")
-                                        || mimeType.matches(".*xml$")
-                                )
-                        ) {                                             // Not indexed mime/charset
-                            EntityUtils.consume(entity);
-                            throw new ParseException(mimeType + " " + charset);
+                        if (charsets[0] != null) {
+                            try (InputStream stream = decode(
+                                    new ByteArrayInputStream(response.body()),
+                                    response.headers().firstValue("Content-Encoding").orElse("")
+                            )) {
+                                page.body = readBody(stream, charsets[0]);
+                            } catch (IOException e) {
+                                throw new CompletionException(e);
+                            }
                         }
 
-                        bodyAsBytes = EntityUtils.toByteArray(entity);
-                        body = new String(bodyAsBytes, charset);
+                        return page;
+                    });
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-                        return this;
-                    }
-            );
+    /**
+     * Splits http request header of the form "header-name:header-value".
+     *
+     * @param header Header to split.
+     *
+     * @return Header name and value or null if any of them is blank.
+     */
+    private static String[] splitHeader(String header) {
+        String[] str = header.split("\\s*:\\s*", 2);
+
+        if (str.length == 2 && !str[0].isBlank() && !str[1].isBlank()) {
+            return str;
+        }
+        return null;
+    }
+
+    /**
+     * Reads page body of limited size.
+     *
+     * @param stream Decoded body bytes.
+     * @param charset Body charset.
+     *
+     * @return Page body.
+     *
+     * @throws ParseException - the page size exceeds the limit.
+     * @throws IOException Reading error.
+     */
+    private static String readBody(InputStream stream, Charset charset) throws IOException {
+        Reader reader = new InputStreamReader(
+                maxPageSize > 0 ? new LimitedInputStream(stream, maxPageSize) : stream,
+                charset
+        );
+
+        StringBuilder body = new StringBuilder();
+        char[] buffer = new char[8192];
+
+        for (int count = reader.read(buffer); count >= 0; count = reader.read(buffer)) {
+            body.append(buffer, 0, count);
+        }
+
+        return body.toString();
+    }
+
+    /**
+     * Wraps body stream with decompressing stream of the content encoding.
+     *
+     * @param stream Body bytes as received.
+     * @param encoding Content-Encoding header value.
+     *
+     * @return Decoded body bytes.
+     *
+     * @throws IOException Compressed data header error.
+     */
+    private static InputStream decode(InputStream stream, String encoding) throws IOException {
+        switch (encoding.trim().toLowerCase()) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(stream);
+            case "deflate":
+                return new DeflateInputStream(stream);
+            default:
+                return stream;
+        }
+    }
+
+    /**
+     * Body subscriber, collecting bytes and failing when their number exceeds the limit
+     * or no bytes are received during the timeout.
+     * <br>
+     * The limit applies to bytes as received, the decoded body is limited again while it is read.
+     */
+    private static class LimitedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+        private final HttpResponse.BodySubscriber<byte[]> bytes = HttpResponse.BodySubscribers.ofByteArray();
+        private final long limit;
+        private final long timeout;
+        private Flow.Subscription subscription;
+        private long count = 0;
+        private long receivedTime;
+        private boolean done = false;
+
+        private LimitedBodySubscriber(long limit, long timeout) {
+            this.limit = limit;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return bytes.getBody();
+        }
+
+        @Override
+        public synchronized void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            receivedTime = System.currentTimeMillis();
+            bytes.onSubscribe(subscription);
+
+            if (timeout > 0) {
+                scheduleTimeoutCheck(timeout);
+            }
+        }
+
+        @Override
+        public synchronized void onNext(List<ByteBuffer> items) {
+            if (done) {
+                return;
+            }
+
+            receivedTime = System.currentTimeMillis();
+
+            for (ByteBuffer item : items) {
+                count += item.remaining();
+            }
+
+            if (limit > 0 && count > limit) {                   // Do not receive the rest of the page
+                fail(new ParseException("Page size exceeds " + limit + " bytes"));
+                return;
+            }
+
+            bytes.onNext(items);
+        }
+
+        @Override
+        public synchronized void onError(Throwable throwable) {
+            if (!done) {
+                done = true;
+                bytes.onError(throwable);
+            }
+        }
+
+        @Override
+        public synchronized void onComplete() {
+            if (!done) {
+                done = true;
+                bytes.onComplete();
+            }
+        }
+
+        /**
+         * Checks the body receiving pause when it may reach the timeout.
+         *
+         * @param delay Delay of the check in ms.
+         */
+        private void scheduleTimeoutCheck(long delay) {
+            CompletableFuture
+                    .delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                    .execute(this::checkTimeout);
+        }
+
+        /**
+         * Fails the body receiving if no bytes are received during the timeout, otherwise checks again later.
+         */
+        private synchronized void checkTimeout() {
+            if (done) {
+                return;
+            }
+
+            long pause = System.currentTimeMillis() - receivedTime;
+
+            if (pause < timeout) {
+                scheduleTimeoutCheck(timeout - pause);
+            } else {
+                fail(new HttpTimeoutException("No response body data received in " + timeout + " ms"));
+            }
+        }
+
+        /**
+         * Stops receiving the body and completes it by the error.
+         *
+         * @param error Error.
+         */
+        private void fail(Throwable error) {
+            done = true;
+            subscription.cancel();
+            bytes.onError(error);
+        }
+    }
+
+    /**
+     * Trust manager accepting any server certificate.
+     * <br>
+     * Unlike a plain {@link javax.net.ssl.X509TrustManager}, an extended one is not wrapped by the SSL engine
+     * with the host name check, so the non-blocking client does not verify host name of the certificate.
+     */
+    private static class TrustAllManager extends X509ExtendedTrustManager {
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) {}
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {}
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {}
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) {}
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {}
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {}
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    }
+
+    /**
+     * Input stream, failing when the number of bytes read exceeds the limit.
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count = 0;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+
+            if (b >= 0) {
+                count(1);
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+
+            if (n > 0) {
+                count(n);
+            }
+
+            return n;
+        }
+
+        private void count(int n) {
+            if ((count += n) > limit) {
+                throw new ParseException("Page size exceeds " + limit + " bytes");
+            }
         }
     }
 }
@@ -0,0 +1,172 @@
+package searchengine.dto.indexing;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Numbers of occurrences of lemmas found in a text.
+ * <br>
+ * Open addressing hash table of lemmas and primitive counters.
+ * A lemma string is created only at its first occurrence.
+ */
+public class LemmaCounter {
+    private String[] lemmas;
+    private int[] hashes;
+    private int[] counts;
+    private int size = 0;
+
+    /**
+     * Constructor of empty counter.
+     */
+    public LemmaCounter() {
+        lemmas = new String[64];
+        hashes = new int[lemmas.length];
+        counts = new int[lemmas.length];
+    }
+
+    /**
+     * Returns number of different lemmas.
+     *
+     * @return Number of lemmas.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an occurrence of a lemma.
+     *
+     * @param lemma Lemma chars.
+     *
+     * @return Number of occurrences of the lemma.
+     */
+    public int add(CharSequence lemma) {
+        int hash = hash(lemma);
+        int mask = lemmas.length - 1;
+        int slot = hash & mask;
+
+        while (lemmas[slot] != null) {
+            if (hashes[slot] == hash && contentEquals(lemmas[slot], lemma)) {
+                return ++counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        lemmas[slot] = lemma.toString();
+        hashes[slot] = hash;
+        counts[slot] = 1;
+
+        if (++size * 2 > lemmas.length) {           // Load factor 0.5
+            grow();
+        }
+
+        return 1;
+    }
+
+    /**
+     * Returns number of occurrences of a lemma.
+     *
+     * @param lemma Lemma.
+     *
+     * @return Number of occurrences, 0 if the lemma is not found.
+     */
+    public int getCount(String lemma) {
+        int hash = hash(lemma);
+        int mask = lemmas.length - 1;
+
+        for (int slot = hash & mask; lemmas[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && lemmas[slot].equals(lemma)) {
+                return counts[slot];
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns set of lemmas found.
+     *
+     * @return Set of lemmas.
+     */
+    public Set<String> getLemmas() {
+        Set<String> set = new HashSet<>(size * 4 / 3 + 1);
+
+        for (String lemma : lemmas) {
+            if (lemma != null) {
+                set.add(lemma);
+            }
+        }
+
+        return set;
+    }
+
+    /**
+     * Doubles the table size.
+     */
+    private void grow() {
+        String[] oldLemmas = lemmas;
+        int[] oldHashes = hashes;
+        int[] oldCounts = counts;
+
+        lemmas = new String[oldLemmas.length * 2];
+        hashes = new int[lemmas.length];
+        counts = new int[lemmas.length];
+
+        int mask = lemmas.length - 1;
+
+        for (int i = 0; i < oldLemmas.length; i++) {
+            if (oldLemmas[i] == null) {
+                continue;
+            }
+
+            int slot = oldHashes[i] & mask;
+
+            while (lemmas[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+
+            lemmas[slot] = oldLemmas[i];
+            hashes[slot] = oldHashes[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+
+    /**
+     * Calculates hash of chars - the same as {@link String#hashCode()} with bits spread.
+     *
+     * @param chars Chars to calculate hash of.
+     *
+     * @return Hash.
+     */
+    private static int hash(CharSequence chars) {
+        int hash = 0;
+
+        for (int i = 0; i < chars.length(); i++) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Compares string and chars.
+     *
+     * @param string String to compare.
+     * @param chars Chars to compare.
+     *
+     * @return true - the string consists of the chars.
+     */
+    private static boolean contentEquals(String string, CharSequence chars) {
+        if (string.length() != chars.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < chars.length(); i++) {
+            if (string.charAt(i) != chars.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -21,4 +21,15 @@ public class LemmaOffset {
         start = offsetAttribute.startOffset();
         end = offsetAttribute.endOffset();
     }
+
+    /**
+     * Constructor initiates this object data with the indexes provided.
+     *
+     * @param start First char index.
+     * @param end Last char index + 1.
+     */
+    public LemmaOffset(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
 }
@@ -0,0 +1,176 @@
+package searchengine.dto.indexing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Thread safe unbounded FIFO queue of links, keeping a bounded number of links in memory.
+ * <br>
+ * Links beyond the memory limit are appended to a temporary file and are read back in order
+ * as the memory part is drained. The file is deleted when it has been read through or the queue is cleared.
+ */
+public class LinkFrontier {
+    private final int memoryLimit;
+    private final Deque<String> head = new ArrayDeque<>();
+
+    private Path spillFile = null;
+    private DataOutputStream writer = null;
+    private DataInputStream reader = null;
+    private long spillCount = 0;                    // Number of links in the file, not read yet
+
+    /**
+     * Constructor of empty queue.
+     *
+     * @param memoryLimit Maximum number of links kept in memory.
+     */
+    public LinkFrontier(int memoryLimit) {
+        this.memoryLimit = Math.max(memoryLimit, 2);
+    }
+
+    /**
+     * Returns number of links in the queue.
+     *
+     * @return Number of links in memory and in the file.
+     */
+    public synchronized long size() {
+        return head.size() + spillCount;
+    }
+
+    /**
+     * Returns number of links kept in the file.
+     *
+     * @return Number of links.
+     */
+    public synchronized long spillSize() {
+        return spillCount;
+    }
+
+    /**
+     * Adds link to the end of the queue.
+     *
+     * @param link Link to add.
+     */
+    public synchronized void put(String link) {
+        if (spillCount == 0 && head.size() < memoryLimit) {
+            head.addLast(link);
+        } else {
+            try {
+                spill(link);
+            } catch (IOException e) {               // Keep the link in memory out of order
+                head.addLast(link);
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Adds link to the beginning of the queue, the link is taken first.
+     *
+     * @param link Link to add.
+     */
+    public synchronized void putFirst(String link) {
+        head.addFirst(link);
+        notifyAll();
+    }
+
+    /**
+     * Takes link from the beginning of the queue.
+     * <br>
+     * Waits until the queue has an item.
+     *
+     * @return Link taken.
+     *
+     * @throws InterruptedException Waiting is interrupted.
+     */
+    public synchronized String take() throws InterruptedException {
+        while (head.isEmpty()) {
+            if (spillCount > 0) {
+                refill();
+            } else {
+                wait();
+            }
+        }
+
+        return head.pollFirst();
+    }
+
+    /**
+     * Removes all links and deletes the file.
+     */
+    public synchronized void clear() {
+        head.clear();
+        deleteSpillFile();
+    }
+
+    /**
+     * Appends link to the file.
+     *
+     * @param link Link to append.
+     *
+     * @throws IOException File writing error.
+     */
+    private void spill(String link) throws IOException {
+        if (writer == null) {
+            spillFile = Files.createTempFile("links", ".tmp");
+            spillFile.toFile().deleteOnExit();
+            writer = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile)));
+        }
+
+        writer.writeUTF(link);
+        spillCount++;
+    }
+
+    /**
+     * Moves links from the file to memory, up to half of the memory limit.
+     */
+    private void refill() {
+        try {
+            writer.flush();
+
+            if (reader == null) {
+                reader = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile)));
+            }
+
+            while (spillCount > 0 && head.size() < memoryLimit / 2) {
+                head.addLast(reader.readUTF());
+                spillCount--;
+            }
+        } catch (IOException e) {                   // The rest of the file is lost
+            spillCount = 0;
+        }
+
+        if (spillCount == 0) {
+            deleteSpillFile();
+        }
+    }
+
+    /**
+     * Closes and deletes the file.
+     */
+    private void deleteSpillFile() {
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+            if (reader != null) {
+                reader.close();
+            }
+            if (spillFile != null) {
+                Files.deleteIfExists(spillFile);
+            }
+        } catch (IOException ignored) {}
+
+        writer = null;
+        reader = null;
+        spillFile = null;
+        spillCount = 0;
+    }
+}
@@ -0,0 +1,125 @@
+package searchengine.dto.indexing;
+
+/**
+ * Compact thread safe set of page paths.
+ * <br>
+ * Open addressing hash table of 64-bit path hashes, the paths are not stored.
+ * A path is taken for added before if its hash matches, the probability of a false match is negligible
+ * for sets of millions of paths.
+ */
+public class PathHashSet {
+    private static final long EMPTY = 0L;
+
+    private long[] hashes = new long[1024];
+    private int size = 0;
+
+    /**
+     * Returns number of paths added.
+     *
+     * @return Number of paths.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Removes all paths.
+     */
+    public synchronized void clear() {
+        hashes = new long[1024];
+        size = 0;
+    }
+
+    /**
+     * Adds path to the set.
+     *
+     * @param path Path to add.
+     *
+     * @return true - the path is new, false - the path has been added before.
+     */
+    public synchronized boolean add(CharSequence path) {
+        long hash = hash(path);
+        int mask = hashes.length - 1;
+        int slot = (int) hash & mask;
+
+        while (hashes[slot] != EMPTY) {
+            if (hashes[slot] == hash) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        hashes[slot] = hash;
+
+        if (++size * 2 > hashes.length) {          // Load factor 0.5
+            grow();
+        }
+
+        return true;
+    }
+
+    /**
+     * Whether the path has been added to the set.
+     *
+     * @param path Path to check.
+     *
+     * @return true - the path is found.
+     */
+    public synchronized boolean contains(CharSequence path) {
+        long hash = hash(path);
+        int mask = hashes.length - 1;
+
+        for (int slot = (int) hash & mask; hashes[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Doubles the table size.
+     */
+    private void grow() {
+        long[] oldHashes = hashes;
+
+        hashes = new long[oldHashes.length * 2];
+
+        int mask = hashes.length - 1;
+
+        for (long hash : oldHashes) {
+            if (hash == EMPTY) {
+                continue;
+            }
+
+            int slot = (int) hash & mask;
+
+            while (hashes[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+
+            hashes[slot] = hash;
+        }
+    }
+
+    /**
+     * Calculates 64-bit FNV-1a hash of chars with bits spread.
+     *
+     * @param chars Chars to calculate hash of.
+     *
+     * @return Non-zero hash.
+     */
+    private static long hash(CharSequence chars) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < chars.length(); i++) {
+            hash ^= chars.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 32;
+
+        return hash == EMPTY ? 1L : hash;
+    }
+}
@@ -0,0 +1,157 @@
+package searchengine.dto.indexing;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+import java.util.Date;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming parser of sitemap and sitemap index XML files.
+ * <br>
+ * Gzip compressed files are recognized by content. The file is never loaded into memory as a whole.
+ * <br>
+ * Only elements of the sitemap namespace or of no namespace are read,
+ * so links of extensions like image or video sitemaps are ignored.
+ */
+public class SiteMapParser {
+    private static final String SITE_MAP_NAMESPACE = "http://www.sitemaps.org/schemas/sitemap/0.9";
+    private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+    static {
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private SiteMapParser() {}
+
+    /**
+     * Parses sitemap file.
+     *
+     * @param stream Sitemap file bytes, plain or gzip compressed.
+     * @param pageConsumer Receiver of page link and its last modification time, null if the time is not specified.
+     * @param siteMapConsumer Receiver of link to a nested sitemap file of sitemap index.
+     *
+     * @throws IOException File reading error.
+     * @throws XMLStreamException Broken XML.
+     */
+    public static void parse(
+            InputStream stream,
+            BiConsumer<String, Date> pageConsumer,
+            Consumer<String> siteMapConsumer
+    ) throws IOException, XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(decompress(stream));
+
+        try {
+            String loc = null;
+            String lastmod = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if ((event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.END_ELEMENT)
+                        && !isSiteMapElement(reader)
+                ) {
+                    continue;
+                }
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "url":
+                        case "sitemap":
+                            loc = null;
+                            lastmod = null;
+                            break;
+                        case "loc":
+                            loc = reader.getElementText().trim();
+                            break;
+                        case "lastmod":
+                            lastmod = reader.getElementText().trim();
+                            break;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && loc != null && !loc.isEmpty()) {
+                    switch (reader.getLocalName()) {
+                        case "url":
+                            pageConsumer.accept(loc, parseTime(lastmod));
+                            break;
+                        case "sitemap":
+                            siteMapConsumer.accept(loc);
+                            break;
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Whether current element belongs to sitemap namespace or to no namespace.
+     *
+     * @param reader XML reader positioned at an element.
+     *
+     * @return true - the element is a sitemap element.
+     */
+    private static boolean isSiteMapElement(XMLStreamReader reader) {
+        String namespace = reader.getNamespaceURI();
+        return namespace == null || namespace.isEmpty() || namespace.equals(SITE_MAP_NAMESPACE);
+    }
+
+    /**
+     * Parses W3C date and time of sitemap.
+     *
+     * @param time Date or date and time with time zone.
+     *
+     * @return Date object or null if the time is not specified or broken.
+     */
+    public static Date parseTime(String time) {
+        if (time == null || time.isEmpty()) {
+            return null;
+        }
+
+        try {
+            if (time.length() == 10) {                  // Date only
+                return Date.from(LocalDate.parse(time).atStartOfDay(ZoneOffset.UTC).toInstant());
+            }
+            return Date.from(OffsetDateTime.parse(time).toInstant());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Wraps stream of gzip compressed bytes with decompressing stream.
+     *
+     * @param stream Plain or compressed bytes.
+     *
+     * @return Plain bytes.
+     *
+     * @throws IOException Reading error.
+     */
+    private static InputStream decompress(InputStream stream) throws IOException {
+        InputStream buffered = new BufferedInputStream(stream);
+
+        buffered.mark(2);
+        int b1 = buffered.read();
+        int b2 = buffered.read();
+        buffered.reset();
+
+        if (b1 == 0x1f && b2 == 0x8b) {                 // Gzip magic number
+            return new GZIPInputStream(buffered);
+        }
+        return buffered;
+    }
+}
@@ -17,4 +17,7 @@ public class SiteDetailedStatistics {
     private int pages = 0;                  // Number of indexed pages in the site
     private int lemmas = 0;                 // Number of lemmas found in the site
     private int tasks = 0;                  // Number of concurrent indexing tasks running
+    private int lemmaCache = 0;             // Number of lemmas cached by indexing process
+    private int conditionalRequests = 0;    // Number of page requests sent with previous indexing validators
+    private int notModified = 0;            // Number of page requests answered by 304 Not Modified
 }
@@ -14,6 +14,11 @@ public class TotalStatistics {
     private int lemmas = 0;                 // Number of lemmas in the database
     private boolean indexing;               // Whether indexing process run
     private int tasks = 0;                  // Number of indexing tasks running
+    private int lemmaCache = 0;             // Number of lemmas cached by indexing processes
+    private int conditionalRequests = 0;    // Number of page requests sent with previous indexing validators
+    private int notModified = 0;            // Number of page requests answered by 304 Not Modified
+    private long requests = 0;              // Number of http requests sent by pooled client
+    private long reusedConnections = 0;     // Number of the requests sent through kept alive connections
 
     /**
      * Increments site number with the value provided.
@@ -50,4 +55,31 @@ public class TotalStatistics {
     public void addTasks(int count) {
         tasks += count;
     }
+
+    /**
+     * Increments cached lemma number with the value provided.
+     *
+     * @param count Additional number of lemmas.
+     */
+    public void addLemmaCache(int count) {
+        lemmaCache += count;
+    }
+
+    /**
+     * Increments conditional request number with the value provided.
+     *
+     * @param count Additional number of requests.
+     */
+    public void addConditionalRequests(int count) {
+        conditionalRequests += count;
+    }
+
+    /**
+     * Increments not modified response number with the value provided.
+     *
+     * @param count Additional number of responses.
+     */
+    public void addNotModified(int count) {
+        notModified += count;
+    }
 }
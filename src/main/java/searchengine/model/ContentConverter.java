@@ -0,0 +1,146 @@
+package searchengine.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Page content and text storage converter.
+ * <br>
+ * Content is stored as UTF-8 bytes or, in compressed mode, as a zero byte followed by deflate compressed UTF-8 bytes.
+ * Both forms are read regardless of the mode, so the mode can be changed with no data conversion.
+ * <br>
+ * Content starting with U+0000 char is compressed in either mode, so its zero byte is never stored unmarked.
+ * Such content, stored plain by former versions, is read as plain if it is not valid compressed data.
+ */
+@Converter
+public class ContentConverter implements AttributeConverter<String, byte[]> {
+    private static final byte COMPRESSED = 0;          // Zero byte starts plain UTF-8 text of U+0000 char only
+
+    @Override
+    public byte[] convertToDatabaseColumn(String content) {
+        return content != null ? toBytes(content) : null;
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (isCompressed(bytes)) {
+            try {
+                return decompress(bytes);
+            } catch (IllegalStateException ignored) {}  // Plain content of former versions
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Static methods
+
+    /**
+     * Store new content compressed.
+     */
+    @Setter
+    @Getter
+    private static boolean compress = false;
+
+    /**
+     * Converts content to stored bytes according to the compression mode.
+     *
+     * @param content Content text.
+     *
+     * @return Plain UTF-8 bytes or compressed bytes.
+     */
+    public static byte[] toBytes(String content) {
+        return compress || content.startsWith("\0")
+                ? compress(content)
+                : content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether stored content is compressed.
+     *
+     * @param bytes Stored content.
+     *
+     * @return true - the content is compressed.
+     */
+    public static boolean isCompressed(byte[] bytes) {
+        return bytes.length > 0 && bytes[0] == COMPRESSED;
+    }
+
+    /**
+     * Compresses content.
+     *
+     * @param content Content text.
+     *
+     * @return Zero byte followed by deflate compressed UTF-8 bytes.
+     */
+    public static byte[] compress(String content) {
+        byte[] input = content.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 4 + 64);
+            byte[] buffer = new byte[8192];
+
+            output.write(COMPRESSED);
+
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompresses content.
+     *
+     * @param bytes Zero byte followed by deflate compressed UTF-8 bytes.
+     *
+     * @return Content text.
+     */
+    public static String decompress(byte[] bytes) {
+        Inflater inflater = new Inflater(true);
+
+        try {
+            inflater.setInput(bytes, 1, bytes.length - 1);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length * 4);
+            byte[] buffer = new byte[8192];
+
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed content");
+                }
+
+                output.write(buffer, 0, count);
+            }
+
+            if (inflater.getRemaining() > 0) {
+                throw new IllegalStateException("Trailing bytes of compressed content");
+            }
+
+            return output.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Broken compressed content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -4,10 +4,16 @@ import lombok.Getter;
 import lombok.Setter;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 import javax.persistence.*;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Index table entity class.
@@ -59,6 +65,46 @@ public class Index {
         jdbcTemplate.execute("DELETE FROM `index` WHERE page_id IS NULL OR lemma_id IS NULL");
     }
 
+    /**
+     * Reads all index records of a site together with their lemmas.
+     * <br>
+     * Rows are read from database one by one with no buffering of the whole result.
+     *
+     * @param siteId Site id.
+     * @param handler Row handler of lemma, page_id and rank columns.
+     */
+    public static void forEachSiteRecord(Integer siteId, RowCallbackHandler handler) {
+        forEachSiteRecord(siteId, false, handler);
+    }
+
+    /**
+     * Reads all index records of a site together with their lemmas.
+     * <br>
+     * Rows are read from database one by one with no buffering of the whole result.
+     *
+     * @param siteId Site id.
+     * @param sorted Sort rows by lemma UTF-8 bytes and page id.
+     * @param handler Row handler of lemma, page_id and rank columns.
+     */
+    public static void forEachSiteRecord(Integer siteId, boolean sorted, RowCallbackHandler handler) {
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "SELECT l.lemma, i.page_id, i.`rank` FROM `lemma` l"
+                                    + " JOIN `index` i ON i.lemma_id = l.id"
+                                    + " WHERE l.site_id = ? AND i.page_id IS NOT NULL"
+                                    + (sorted ? " ORDER BY CAST(l.lemma AS BINARY), i.page_id" : ""),
+                            ResultSet.TYPE_FORWARD_ONLY,
+                            ResultSet.CONCUR_READ_ONLY
+                    );
+                    statement.setFetchSize(Integer.MIN_VALUE);
+                    statement.setInt(1, siteId);
+                    return statement;
+                },
+                handler
+        );
+    }
+
     /**
      * Whether database provide cascade deleting index records on delete parent page or lemma record.
      *
@@ -70,6 +116,67 @@ public class Index {
                 .matches(".+ FOREIGN KEY .+ ON DELETE CASCADE.+ FOREIGN KEY .+ ON DELETE CASCADE.+");
     }
 
+    /**
+     * Returns lemmas of a page with their ranks.
+     *
+     * @param pageId Page id.
+     *
+     * @return Map of lemma strings to ranks.
+     */
+    public static Map<String, Float> findPageRanks(Integer pageId) {
+        Map<String, Float> ranks = new HashMap<>();
+
+        jdbcTemplate.query(
+                "SELECT l.lemma, i.`rank` FROM `index` i JOIN `lemma` l ON l.id = i.lemma_id WHERE i.page_id = ?",
+                (RowCallbackHandler) resultSet -> ranks.put(resultSet.getString(1), resultSet.getFloat(2)),
+                pageId
+        );
+
+        return ranks;
+    }
+
+    /**
+     * Moves index records of a page from source site lemmas to equal lemmas of another site.
+     * <br>
+     * Records of the lemmas absent in the target site are not changed.
+     *
+     * @param pageId Page id.
+     * @param fromSiteId Source site id.
+     * @param toSiteId Target site id.
+     *
+     * @return Number of records moved.
+     */
+    public static int moveToSite(Integer pageId, Integer fromSiteId, Integer toSiteId) {
+        return jdbcTemplate.update(
+                "UPDATE `index` i JOIN `lemma` n ON n.id = i.lemma_id"
+                        + " JOIN `lemma` o ON o.lemma = n.lemma AND o.site_id = ?"
+                        + " SET i.lemma_id = o.id"
+                        + " WHERE i.page_id = ? AND n.site_id = ?",
+                toSiteId,
+                pageId,
+                fromSiteId
+        );
+    }
+
+    /**
+     * Inserts index records by batch statements.
+     *
+     * @param indexes Index entities to insert, ids of the entities are not set.
+     * @param batchSize Maximum number of records of a batch statement.
+     */
+    public static void insert(Collection<Index> indexes, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO `index` (page_id, lemma_id, `rank`) VALUES (?, ?, ?)",
+                indexes,
+                batchSize,
+                (statement, index) -> {
+                    statement.setInt(1, index.getPageId());
+                    statement.setInt(2, index.getLemmaId());
+                    statement.setFloat(3, index.getRank());
+                }
+        );
+    }
+
     /**
      * Rebuilds foreign indexes to activate cascade delete index records.
      */
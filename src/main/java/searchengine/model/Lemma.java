@@ -3,12 +3,18 @@ package searchengine.model;
 import lombok.Getter;
 import lombok.Setter;
 
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 
 import javax.persistence.*;
 
-import java.util.Arrays;
-import java.util.Set;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Lemma table entity class.
@@ -19,6 +25,8 @@ import java.util.Set;
 @Table(indexes = {
         @javax.persistence.Index(columnList = "lemma")
         , @javax.persistence.Index(columnList = "frequency")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "site_lemma", columnNames = {"site_id", "lemma"})
 })
 public class Lemma {
     @Id
@@ -64,6 +72,294 @@ public class Lemma {
         jdbcTemplate.execute(sql);
     }
 
+    /**
+     * Returns id of a site lemma record, creates the record if it does not exist.
+     * <br>
+     * Concurrent calls for the same lemma return the same id, the record is unique by site id and lemma.
+     *
+     * @param siteId Site id.
+     * @param lemma Lemma.
+     *
+     * @return Lemma record id.
+     */
+    public static int upsert(Integer siteId, String lemma) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO `lemma` (site_id, lemma, frequency) VALUES (?, ?, 0)"
+                            + " ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)",
+                    Statement.RETURN_GENERATED_KEYS
+            );
+            statement.setObject(1, siteId);
+            statement.setString(2, lemma);
+            return statement;
+        }, keyHolder);
+
+        // Updated record may be reported as two generated keys, the first one is the record id
+        Number id = (Number) keyHolder.getKeyList().get(0).values().iterator().next();
+
+        return id.intValue();
+    }
+
+    /**
+     * Returns ids of site lemma records, creates the records which do not exist.
+     * <br>
+     * Lemmas are inserted by batch statements in alphabetical order to keep concurrent batches of a site
+     * from deadlocking, the lemmas failed in a batch are resolved one by one.
+     *
+     * @param siteId Site id.
+     * @param lemmas Lemmas.
+     * @param batchSize Maximum number of records of a batch statement.
+     *
+     * @return Lemma to record id map.
+     */
+    public static Map<String, Integer> upsert(Integer siteId, Collection<String> lemmas, int batchSize) {
+        Set<String> lemmaSet = new TreeSet<>(lemmas);
+        List<String> sortedLemmas = new ArrayList<>(lemmaSet);
+        Map<String, Integer> ids = new HashMap<>();
+
+        for (int i = 0; i < sortedLemmas.size(); i += batchSize) {
+            List<String> batch = sortedLemmas.subList(i, Math.min(sortedLemmas.size(), i + batchSize));
+
+            try {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO `lemma` (site_id, lemma, frequency) VALUES (?, ?, 0)"
+                                + " ON DUPLICATE KEY UPDATE id = id",
+                        batch,
+                        batch.size(),
+                        (statement, lemma) -> {
+                            statement.setObject(1, siteId);
+                            statement.setString(2, lemma);
+                        }
+                );
+            } catch (ConcurrencyFailureException ignored) {}        // Resolved one by one below
+
+            jdbcTemplate.query(
+                    "SELECT id, lemma FROM `lemma` WHERE site_id = ? AND lemma IN ("
+                            + String.join(", ", Collections.nCopies(batch.size(), "?")) + ")",
+                    row -> {
+                        ids.put(row.getString(2), row.getInt(1));
+                    },
+                    concat(siteId, batch)
+            );
+        }
+
+        // Lemmas equal to other ones by database collation or failed to insert
+
+        for (String lemma : sortedLemmas) {
+            if (!ids.containsKey(lemma)) {
+                ids.put(lemma, upsert(siteId, lemma));
+            }
+        }
+
+        ids.keySet().retainAll(lemmaSet);
+
+        return ids;
+    }
+
+    /**
+     * Adds values to frequencies of lemma records by batch statements.
+     *
+     * @param frequencies Lemma record id to frequency increment map.
+     * @param batchSize Maximum number of records of a batch statement.
+     */
+    public static void addFrequencies(Map<Integer, Integer> frequencies, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE `lemma` SET frequency = frequency + ? WHERE id = ?",
+                frequencies.entrySet(),
+                batchSize,
+                (statement, entry) -> {
+                    statement.setInt(1, entry.getValue());
+                    statement.setInt(2, entry.getKey());
+                }
+        );
+    }
+
+    /**
+     * Sets frequency of every site lemma record has the value equal to zero
+     * to the number of pages the lemma is found on.
+     *
+     * @param siteId Site id.
+     *
+     * @return Number of records updated.
+     */
+    public static int countFrequencies(Integer siteId) {
+        return jdbcTemplate.update(
+                "UPDATE `lemma` l JOIN ("
+                        + "SELECT i.lemma_id, COUNT(*) AS frequency FROM `index` i"
+                        + " JOIN `page` p ON p.id = i.page_id"
+                        + " WHERE p.site_id = ? GROUP BY i.lemma_id"
+                        + ") c ON c.lemma_id = l.id"
+                        + " SET l.frequency = c.frequency"
+                        + " WHERE l.site_id = ? AND l.frequency = 0",
+                siteId,
+                siteId
+        );
+    }
+
+    /**
+     * Removes site lemma records of zero or negative frequency.
+     *
+     * @param siteId Site id.
+     *
+     * @return Number of records removed.
+     */
+    public static int deleteUnused(Integer siteId) {
+        return jdbcTemplate.update("DELETE FROM `lemma` WHERE site_id = ? AND frequency <= 0", siteId);
+    }
+
+    /**
+     * Decrements frequencies of the lemmas found on a page.
+     *
+     * @param pageId Page id.
+     *
+     * @return Number of records updated.
+     */
+    public static int decrementFrequencies(Integer pageId) {
+        return jdbcTemplate.update(
+                "UPDATE `lemma` l JOIN `index` i ON i.lemma_id = l.id"
+                        + " SET l.frequency = l.frequency - 1"
+                        + " WHERE i.page_id = ?",
+                pageId
+        );
+    }
+
+    /**
+     * Moves a page occurrence of the lemmas, which exist in both sites, from one site lemma record to another.
+     * <br>
+     * Frequency of the source site lemma is decremented, frequency of the target site one is incremented.
+     * Index records of the page are not changed.
+     *
+     * @param pageId Page id.
+     * @param fromSiteId Source site id.
+     * @param toSiteId Target site id.
+     */
+    public static void mergeFrequencies(Integer pageId, Integer fromSiteId, Integer toSiteId) {
+        jdbcTemplate.update(
+                "UPDATE `lemma` o JOIN `lemma` n ON n.lemma = o.lemma JOIN `index` i ON i.lemma_id = n.id"
+                        + " SET o.frequency = o.frequency + 1"
+                        + " WHERE i.page_id = ? AND n.site_id = ? AND o.site_id = ?",
+                pageId,
+                fromSiteId,
+                toSiteId
+        );
+        jdbcTemplate.update(
+                "UPDATE `lemma` n JOIN `lemma` o ON o.lemma = n.lemma JOIN `index` i ON i.lemma_id = n.id"
+                        + " SET n.frequency = n.frequency - 1"
+                        + " WHERE i.page_id = ? AND n.site_id = ? AND o.site_id = ?",
+                pageId,
+                fromSiteId,
+                toSiteId
+        );
+    }
+
+    /**
+     * Moves site lemma records found on a page to another site.
+     *
+     * @param pageId Page id.
+     * @param fromSiteId Source site id.
+     * @param toSiteId Target site id.
+     *
+     * @return Number of records moved.
+     */
+    public static int moveToSite(Integer pageId, Integer fromSiteId, Integer toSiteId) {
+        return jdbcTemplate.update(
+                "UPDATE `lemma` n JOIN `index` i ON i.lemma_id = n.id"
+                        + " SET n.site_id = ?"
+                        + " WHERE i.page_id = ? AND n.site_id = ?",
+                toSiteId,
+                pageId,
+                fromSiteId
+        );
+    }
+
+    /**
+     * Makes query parameters array of site id and lemmas.
+     *
+     * @param siteId Site id.
+     * @param lemmas Lemmas.
+     *
+     * @return Parameters array.
+     */
+    private static Object[] concat(Integer siteId, List<String> lemmas) {
+        Object[] parameters = new Object[lemmas.size() + 1];
+
+        parameters[0] = siteId;
+
+        for (int i = 0; i < lemmas.size(); i++) {
+            parameters[i + 1] = lemmas.get(i);
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Whether database has unique key of lemma records by site id and lemma.
+     *
+     * @return true if the key exists.
+     */
+    private static boolean isUniqueKey() {
+        String response = jdbcTemplate.queryForList("show create table `lemma`").toString();
+        return response.replaceAll("\\s", " ")
+                .matches("(?i).+ UNIQUE KEY `site_lemma` \\(`site_id`, ?`lemma`\\).+");
+    }
+
+    /**
+     * Creates unique key of lemma records by site id and lemma, the upserts rely on.
+     * <br>
+     * Duplicate site lemma records, equal by database collation, are merged into the record of the least id:
+     * their index records are moved to it, ranks of the same page are summed.
+     * Frequencies of the merged records are recalculated.
+     *
+     * @throws IllegalStateException The key can not be created.
+     */
+    public static void setUniqueKey() {
+        if (isUniqueKey()) {
+            return;
+        }
+
+        try {
+            List<Object[]> duplicates = jdbcTemplate.query(
+                    "SELECT d.id, k.id FROM `lemma` d JOIN ("
+                            + "SELECT site_id, lemma, MIN(id) AS id FROM `lemma`"
+                            + " WHERE site_id IS NOT NULL GROUP BY site_id, lemma HAVING COUNT(*) > 1"
+                            + ") k ON k.site_id = d.site_id AND k.lemma = d.lemma AND k.id <> d.id",
+                    (row, rowNum) -> new Object[]{row.getInt(1), row.getInt(2)}
+            );
+
+            if (!duplicates.isEmpty()) {
+                String[] sql = {
+                        "UPDATE `index` k JOIN `index` d ON d.page_id = k.page_id"
+                                + " SET k.`rank` = k.`rank` + d.`rank` WHERE d.lemma_id = ? AND k.lemma_id = ?"
+                        , "DELETE d FROM `index` d JOIN `index` k ON k.page_id = d.page_id"
+                                + " WHERE d.lemma_id = ? AND k.lemma_id = ?"
+                        , "UPDATE `index` SET lemma_id = ? WHERE lemma_id = ?"
+                };
+
+                jdbcTemplate.batchUpdate(sql[0], duplicates);
+                jdbcTemplate.batchUpdate(sql[1], duplicates);
+                jdbcTemplate.batchUpdate(
+                        sql[2],
+                        duplicates.stream().map(ids -> new Object[]{ids[1], ids[0]}).collect(Collectors.toList())
+                );
+                jdbcTemplate.batchUpdate(
+                        "DELETE FROM `lemma` WHERE id = ?",
+                        duplicates.stream().map(ids -> new Object[]{ids[0]}).collect(Collectors.toList())
+                );
+                jdbcTemplate.batchUpdate(
+                        "UPDATE `lemma` SET frequency = (SELECT COUNT(*) FROM `index` WHERE lemma_id = ?) WHERE id = ?",
+                        duplicates.stream().map(ids -> ids[1]).distinct()
+                                .map(id -> new Object[]{id, id}).collect(Collectors.toList())
+                );
+            }
+
+            jdbcTemplate.execute("ALTER TABLE `lemma` ADD CONSTRAINT site_lemma UNIQUE (site_id, lemma)");
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Unique key site_lemma of lemma table can not be created", e);
+        }
+    }
+
     /**
      * Whether database provide cascade deleting lemma records on delete parent site record.
      *
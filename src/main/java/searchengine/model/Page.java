@@ -4,10 +4,17 @@ import lombok.Getter;
 import lombok.Setter;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 import javax.persistence.*;
 
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -32,8 +39,28 @@ public class Page {
     @Column(nullable = false)
     private Integer code = FATAL_ERROR_CODE;
 
-    @Column(columnDefinition = "MEDIUMTEXT", nullable = false)
-    private String content;         // Must have no default value
+    @Convert(converter = ContentConverter.class)
+    @Column(columnDefinition = "MEDIUMBLOB", nullable = false)
+    private String content;         // Must have no default value, UTF-8 bytes or compressed
+
+    @Column(columnDefinition = "TEXT")
+    private String title;           // Null if the page is not parsed
+
+    @Convert(converter = ContentConverter.class)
+    @Column(columnDefinition = "MEDIUMBLOB")
+    private String text;            // Plain text of the content, null if the page is not parsed
+
+    @Column(length = 32)
+    private String hash;            // MD5 of the content of code 200 page, null if not calculated
+
+    @Transient
+    private Integer reusedPageId;   // Previous indexing page of equal content to copy index records from
+
+    @Column(length = ETAG_LENGTH)
+    private String etag;            // ETag http header of the page, null if not provided or too long
+
+    @Column(length = LAST_MODIFIED_LENGTH)
+    private String lastModified;    // Last-Modified http header of the page, null if not provided or too long
 
     @OneToMany(cascade = CascadeType.ALL,
             orphanRemoval = true,
@@ -42,6 +69,30 @@ public class Page {
     @JoinColumn(name = "page_id", foreignKey = @ForeignKey(name = "page_to_index"))
     private Set<Index> indexes;
 
+    /**
+     * Sets ETag validator of the page.
+     * <br>
+     * A value longer than the column is dropped, since a truncated validator is of no use.
+     *
+     * @param etag ETag http header value or null.
+     */
+    public void setEtag(String etag) {
+        this.etag = etag != null && etag.length() <= ETAG_LENGTH ? etag : null;
+    }
+
+    /**
+     * Sets Last-Modified validator of the page.
+     * <br>
+     * A value longer than the column is dropped, since a truncated validator is of no use.
+     *
+     * @param lastModified Last-Modified http header value or null.
+     */
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified != null && lastModified.length() <= LAST_MODIFIED_LENGTH
+                ? lastModified
+                : null;
+    }
+
     // Static methods
 
     @Setter
@@ -61,6 +112,32 @@ public class Page {
      */
     public static final int NOT_A_PAGE_CODE = 1;
 
+    /**
+     * Maximum length of ETag validator.
+     */
+    public static final int ETAG_LENGTH = 255;
+
+    /**
+     * Maximum length of Last-Modified validator.
+     */
+    public static final int LAST_MODIFIED_LENGTH = 64;
+
+    /**
+     * Calculates hash of page content.
+     *
+     * @param content Page content.
+     *
+     * @return Hex string of MD5 hash.
+     */
+    public static String hash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(content.getBytes(StandardCharsets.UTF_8));
+            return String.format("%032x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
     /**
      * Removes all page records of a site.
      *
@@ -78,6 +155,120 @@ public class Page {
         jdbcTemplate.execute(sql);
     }
 
+    /**
+     * Removes page record and its index records.
+     *
+     * @param pageId Page id.
+     */
+    public static void deleteById(Integer pageId) {
+        jdbcTemplate.update("DELETE FROM `index` WHERE page_id = ?", pageId);
+        jdbcTemplate.update("DELETE FROM `page` WHERE id = ?", pageId);
+    }
+
+    /**
+     * Moves page record to another site.
+     *
+     * @param pageId Page id.
+     * @param siteId Target site id.
+     */
+    public static void moveToSite(Integer pageId, Integer siteId) {
+        jdbcTemplate.update("UPDATE `page` SET site_id = ? WHERE id = ?", siteId, pageId);
+    }
+
+    /**
+     * Saves title and plain text of a page parsed.
+     *
+     * @param pageId Page id.
+     * @param title Page title.
+     * @param text Plain text of the page content.
+     */
+    public static void updateText(Integer pageId, String title, String text) {
+        jdbcTemplate.update(
+                "UPDATE `page` SET title = ?, text = ? WHERE id = ?",
+                title,
+                text != null ? ContentConverter.toBytes(text) : null,
+                pageId
+        );
+    }
+
+    /**
+     * Converts content and text columns of text type, created by former versions,
+     * to binary type of {@link ContentConverter}.
+     * <br>
+     * Text bytes are kept as they are, so existing content is read as plain UTF-8.
+     */
+    public static void setContentBinary() {
+        String response = jdbcTemplate.queryForList("show create table `page`").toString()
+                .replaceAll("\\s", " ");
+
+        if (response.matches("(?i).*`content` mediumtext.*")) {
+            jdbcTemplate.execute("ALTER TABLE `page` MODIFY `content` MEDIUMBLOB NOT NULL");
+        }
+        if (response.matches("(?i).*`text` mediumtext.*")) {
+            jdbcTemplate.execute("ALTER TABLE `page` MODIFY `text` MEDIUMBLOB NULL");
+        }
+    }
+
+    /**
+     * Compresses content and text of page records stored as plain text.
+     * <br>
+     * Only records of plain columns are read, so a database compressed already is not transferred again.
+     *
+     * @param batchSize Maximum number of records of a batch statement.
+     *
+     * @return Number of records compressed.
+     */
+    public static int compressContent(int batchSize) {
+        int count = 0;
+        int[] scan = {0, 0};                        // Last record id, number of records read
+
+        do {
+            List<Object[]> rows = new ArrayList<>(batchSize);
+            int lastId = scan[0];
+
+            scan[1] = 0;
+            jdbcTemplate.query(
+                    "SELECT id, content, text FROM `page`"
+                            + " WHERE id > ? AND (ASCII(content) <> 0 OR ASCII(text) <> 0)"   // Plain columns
+                            + " ORDER BY id LIMIT ?",
+                    (RowCallbackHandler) resultSet -> {
+                        byte[] text = resultSet.getBytes(3);
+
+                        scan[0] = resultSet.getInt(1);
+                        scan[1]++;
+
+                        rows.add(new Object[]{
+                                compress(resultSet.getBytes(2)),
+                                text != null ? compress(text) : null,
+                                scan[0]
+                        });
+                    },
+                    lastId,
+                    batchSize
+            );
+
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE `page` SET content = ?, text = ? WHERE id = ?", rows);
+                count += rows.size();
+            }
+        } while (scan[1] == batchSize);
+
+        return count;
+    }
+
+    /**
+     * Compresses stored bytes unless they are compressed already.
+     *
+     * @param bytes Stored plain UTF-8 or compressed bytes.
+     *
+     * @return Compressed bytes.
+     */
+    private static byte[] compress(byte[] bytes) {
+        return ContentConverter.isCompressed(bytes)
+                ? bytes
+                : ContentConverter.compress(new String(bytes, StandardCharsets.UTF_8));
+    }
+
     /**
      * Whether database provide cascade deleting page records on delete parent site record.
      *
@@ -22,6 +22,7 @@ import searchengine.model.Lemma;
 import searchengine.model.Page;
 
 import searchengine.services.indexing.site.SiteTask;
+import searchengine.services.search.postings.PostingIndexService;
 
 import java.net.URISyntaxException;
 import java.util.HashMap;
@@ -36,6 +37,7 @@ import java.util.concurrent.ForkJoinPool;
 public class IndexingService implements AutoCloseable {
     public static final String USER_SHUTDOWN_ERROR = "Индексация остановлена пользователем";
 
+    @Getter
     private final ApplicationSettings applicationSettings;
 
     @Getter
@@ -47,6 +49,9 @@ public class IndexingService implements AutoCloseable {
     @Getter
     private final IndexRepository indexRepository;
 
+    @Getter
+    private final PostingIndexService postingIndexService;
+
     private ForkJoinPool taskPool;
 
     /**
@@ -55,17 +60,26 @@ public class IndexingService implements AutoCloseable {
     private Map<String, SiteTask> taskList = new HashMap<>();
 
     /**
-     * Initializes and cleans the database.
+     * Initializes and cleans the database, then loads search indexes from it.
      */
     @EventListener(ApplicationReadyEvent.class)
     private void initDatabase() {
+        Page.setContentBinary();
+
+        if (applicationSettings.getCompressContent()) {
+            Page.compressContent(Math.min(applicationSettings.getBatchSize(), 100));   // Whole pages are read
+        }
+
         Page.setOnDeleteCascade();
         Lemma.setOnDeleteCascade();
+        Lemma.setUniqueKey();
         Index.setOnDeleteCascade();
 
         Index.clean();
         Lemma.delete(null);
         Page.delete(null);
+
+        postingIndexService.loadIndexes();
     }
 
     /**
@@ -112,6 +126,58 @@ public class IndexingService implements AutoCloseable {
         return false;
     }
 
+    /**
+     * Returns number of lemmas cached by indexing process of the site of the root URL provided.
+     *
+     * @param url Root URL of the site.
+     *
+     * @return Number of lemmas.
+     */
+    public int getSiteLemmaCacheCount(String url) {
+        SiteTask task = taskList.get(url);
+
+        if (task != null) {
+            return task.getLemmaCacheCount();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns number of page requests sent with validators of previous indexing
+     * for the site of the root URL provided.
+     *
+     * @param url Root URL of the site.
+     *
+     * @return Number of requests.
+     */
+    public int getSiteConditionalRequestCount(String url) {
+        SiteTask task = taskList.get(url);
+
+        if (task != null) {
+            return task.getConditionalRequestCount();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns number of page requests answered by 304 Not Modified for the site of the root URL provided.
+     *
+     * @param url Root URL of the site.
+     *
+     * @return Number of requests.
+     */
+    public int getSiteNotModifiedCount(String url) {
+        SiteTask task = taskList.get(url);
+
+        if (task != null) {
+            return task.getNotModifiedCount();
+        }
+
+        return 0;
+    }
+
     /**
      * Returns number of indexing tasks running for the site of the root URL provided.
      *
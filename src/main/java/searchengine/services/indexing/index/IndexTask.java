@@ -6,13 +6,13 @@ import lombok.RequiredArgsConstructor;
 import searchengine.model.Page;
 
 import searchengine.services.indexing.index.abstracts.IndexTaskPageHandler;
-import searchengine.services.indexing.page.abstracts.PageTaskChildTaskController;
 import searchengine.services.indexing.site.abstracts.SiteTaskChildTaskController;
 
 /**
  * Pages indexing thread class.
  * <br>
- * Takes pages from {@link searchengine.services.indexing.page.PageTask} thread pages queue.
+ * Takes pages from {@link searchengine.services.indexing.site.SiteTask} thread pages queue,
+ * filled by threads of {@link searchengine.services.indexing.page.PageTask}.
  * <br>
  * Parses pages for links and puts the links on {@link searchengine.services.indexing.site.SiteTask} links queue
  * for following downloading by a thread of {@link searchengine.services.indexing.page.PageTask}.
@@ -23,23 +23,24 @@ import searchengine.services.indexing.site.abstracts.SiteTaskChildTaskController
 public class IndexTask extends IndexTaskPageHandler {
     @Getter
     private final SiteTaskChildTaskController siteTask;
-    private final PageTaskChildTaskController pageTask;
 
     @Override
     protected void compute() {
         try {
             while (true) {
-                Page page = pageTask.getPage();
+                Page page = siteTask.getPage();
 
                 if (isStopMessage(page)) {
                     break;
                 }
 
-                processPage(page);
+                try {
+                    processPage(page);
+                } catch (RuntimeException e) {       // Keep taking pages, so page tasks never wait forever
+                    e.printStackTrace();
+                }
             }
         } catch (InterruptedException ignored) {
-        } catch (Exception e) {
-            e.printStackTrace();
         }
     }
 
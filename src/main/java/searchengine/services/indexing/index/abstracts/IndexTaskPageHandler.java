@@ -8,15 +8,27 @@ import searchengine.model.Page;
 public abstract class IndexTaskPageHandler extends IndexTaskTextLemmasParser {
     /**
      * Processes {@link Page} object to extract links and text lemmas from.
+     * <br>
+     * Lemmas of a page equal to a page of previous indexing are copied from the previous page.
+     * <br>
+     * The page job is done even if processing fails, so a failed page does not stop the site indexing.
      *
      * @param page {@link Page} entity object.
      */
     protected void processPage(Page page) {
-        switch (page.getCode()) {
-            case 200:
-                processLemmas(page, processLinks(page));
-                break;
+        try {
+            switch (page.getCode()) {
+                case 200:
+                    if (page.getReusedPageId() != null) {
+                        parseLinks(page);
+                        reuseLemmas(page);
+                    } else {
+                        processLemmas(page, processLinks(page));
+                    }
+                    break;
+            }
+        } finally {
+            doneJob();
         }
-        doneJob();
     }
 }
@@ -16,12 +16,31 @@ import java.util.stream.Collectors;
 public abstract class IndexTaskPageLinksParser extends IndexTaskProxy {
     /**
      * Parses page to find links.
+     * <br>
+     * Saves the page title and plain text for search responses.
      *
      * @param page Page entity object.
      *
      * @return The page plain text.
      */
     protected String processLinks(Page page) {
+        Document document = parseLinks(page);
+
+        page.setTitle(document.title());
+        page.setText(document.text());
+        Page.updateText(page.getId(), page.getTitle(), page.getText());
+
+        return page.getText();
+    }
+
+    /**
+     * Parses page and adds its links to the link queue.
+     *
+     * @param page Page entity object.
+     *
+     * @return The page document.
+     */
+    protected Document parseLinks(Page page) {
         Document document = Jsoup.parse(
                 page.getContent(),
                 baseUrl(page.getPath())
@@ -39,6 +58,6 @@ public abstract class IndexTaskPageLinksParser extends IndexTaskProxy {
 
         addLink(list);
 
-        return document.text();
+        return document;
     }
 }
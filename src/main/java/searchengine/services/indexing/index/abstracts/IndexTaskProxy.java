@@ -13,7 +13,9 @@ import searchengine.dao.LemmaRepository;
 import searchengine.services.indexing.site.abstracts.SiteTaskChildTaskController;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.RecursiveAction;
 
 /**
@@ -74,6 +76,17 @@ public abstract class IndexTaskProxy extends RecursiveAction {
         getSiteTask().addLink(uris);
     }
 
+    /**
+     * Adds posting of a lemma to in-memory index of the indexing site.
+     *
+     * @param lemma Lemma.
+     * @param pageId Page id.
+     * @param rank Rank of the lemma on the page.
+     */
+    protected void addPosting(String lemma, int pageId, float rank) {
+        getSiteTask().addPosting(lemma, pageId, rank);
+    }
+
     /**
      * Decrements job counter.
      *
@@ -93,27 +106,34 @@ public abstract class IndexTaskProxy extends RecursiveAction {
     }
 
     /**
-     * Enter string dependant serialization.
+     * Returns ids of indexing site lemma records.
      * <br>
-     * Waits for the string is free to work on.
+     * Creates the records which do not exist.
      *
-     * @param string String to capture working on.
+     * @param lemmas Lemmas.
      *
-     * @throws InterruptedException Waiting is interrupted.
+     * @return Lemma to record id map.
      */
-    protected void lockString(String string) throws InterruptedException {
-        getSiteTask().lockString(string);
+    protected Map<String, Integer> getLemmaIds(Collection<String> lemmas) {
+        return getSiteTask().getLemmaIds(lemmas);
     }
 
     /**
-     * Exit from string dependant serialization.
-     * <br>
-     * Free the string to work on it by anther thread.
+     * Increments frequencies of lemmas found on a page.
+     *
+     * @param lemmaIds Lemma to record id map of the page.
+     */
+    protected void addLemmaFrequencies(Map<String, Integer> lemmaIds) {
+        getSiteTask().addLemmaFrequencies(lemmaIds);
+    }
+
+    /**
+     * Maximum number of records of a database batch statement.
      *
-     * @param string String to free.
+     * @return Batch size.
      */
-    protected void unlockString(String string) {
-        getSiteTask().unlockString(string);
+    protected int getBatchSize() {
+        return getSiteTask().getBatchSize();
     }
 
     /**
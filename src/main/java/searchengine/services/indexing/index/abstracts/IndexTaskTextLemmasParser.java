@@ -1,7 +1,7 @@
 package searchengine.services.indexing.index.abstracts;
 
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.AnalyzerWrapper;
 import org.apache.lucene.analysis.StopFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.classic.ClassicAnalyzer;
@@ -20,19 +20,22 @@ import org.tartarus.snowball.ext.EnglishStemmer;
 import org.tartarus.snowball.ext.RussianStemmer;
 
 import searchengine.dto.indexing.LemmaAttributes;
+import searchengine.dto.indexing.LemmaCounter;
 
 import searchengine.model.Index;
-import searchengine.model.Lemma;
 import searchengine.model.Page;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.function.ToDoubleFunction;
 import java.util.regex.Pattern;
 
 /**
  * {@link searchengine.services.indexing.index.IndexTask} lemmatization methods abstract class.
  */
 public abstract class IndexTaskTextLemmasParser extends IndexTaskLemmaStopWordsFilter {
+    private static final Analyzer LEMMA_ANALYZER = new LemmaAnalyzer(new ClassicAnalyzer());
+
     /**
      * Indexing a page - extracts lemmas from {@link Page} object text.
      * <br>
@@ -42,88 +45,76 @@ public abstract class IndexTaskTextLemmasParser extends IndexTaskLemmaStopWordsF
      * @param text Plain text of the page object.
      */
     protected void processLemmas(Page page, String text) {
-        Map<String, LemmaAttributes> lemmaStrings = getTextLemmas(text);
-
-        List<Lemma> updateLemmas = new ArrayList<>();
-        List<Index> createIndexes = new ArrayList<>();
-
-        try {
-            for (String lemmaString : lemmaStrings.keySet()) {
-                if (isShutdown()) {
-                    return;
-                }
+        LemmaCounter lemmaStrings = getTextLemmaCounts(text);
 
-                lockString(lemmaString);
+        if (isShutdown()) {
+            return;
+        }
 
-                try {
-                    Lemma lemma = getLemmaRepository().findBySiteIdAndLemma(
-                            getIndexingSiteId(),
-                            lemmaString
-                    ).orElse(new Lemma());
-
-                    if (lemma.getId() == null) {            // New lemma
-                        lemma.setSiteId(page.getSiteId());
-                        lemma.setLemma(lemmaString);
+        saveLemmas(page, lemmaStrings.getLemmas(), lemmaStrings::getCount);
+    }
 
-                        getLemmaRepository().save(lemma);
-                    }
+    /**
+     * Copies lemmas of the page of previous indexing with equal content.
+     *
+     * @param page Page entity object, {@link Page#getReusedPageId()} is the previous page id.
+     */
+    protected void reuseLemmas(Page page) {
+        Map<String, Float> ranks = Index.findPageRanks(page.getReusedPageId());
 
-                    Index index = new Index();
-                    index.setPageId(page.getId());
-                    index.setLemmaId(lemma.getId());
-                    index.setRank(lemmaStrings.get(lemmaString).getRank());
+        if (isShutdown()) {
+            return;
+        }
 
-                    createIndexes.add(index);
+        saveLemmas(page, ranks.keySet(), ranks::get);
+    }
 
-                    if (lemma.getFrequency() != 0) {
-                        lemma.setFrequency(0);              // Mark to update the record at finish of site indexing
-                        updateLemmas.add(lemma);
+    /**
+     * Saves index records of page lemmas.
+     *
+     * @param page Page entity object.
+     * @param lemmaStrings Lemmas of the page.
+     * @param ranks Rank of a lemma in the page.
+     */
+    private void saveLemmas(Page page, Set<String> lemmaStrings, ToDoubleFunction<String> ranks) {
+        Map<String, Integer> lemmaIds = getLemmaIds(lemmaStrings);
+        List<Index> createIndexes = new ArrayList<>(lemmaIds.size());
+
+        for (String lemmaString : lemmaStrings) {
+            Index index = new Index();
+            index.setPageId(page.getId());
+            index.setLemmaId(lemmaIds.get(lemmaString));
+            index.setRank((float) ranks.applyAsDouble(lemmaString));
+
+            createIndexes.add(index);
+        }
+
+        if (isShutdown()) {
+            return;
+        }
+
+        getTransactionTemplate().execute(
+                new TransactionCallbackWithoutResult() {
+                    @Override
+                    protected void doInTransactionWithoutResult(TransactionStatus status) {
+                        Index.insert(createIndexes, getBatchSize());
                     }
-                } finally {
-                    unlockString(lemmaString);
                 }
-            }
-
-            for (int i = 0; i < updateLemmas.size(); i += 1000) {
-                if (isShutdown()) {
-                    return;
-                }
-
-                List<Lemma> lemmas = updateLemmas.subList(i, Math.min(updateLemmas.size(), i + 1000));
-
-                getTransactionTemplate().execute(
-                        new TransactionCallbackWithoutResult() {
-                            @Override
-                            protected void doInTransactionWithoutResult(TransactionStatus status) {
-                                lemmas.forEach(lemma -> getLemmaRepository().save(lemma));
-                            }
-                        }
-                );
-            }
+        );
 
-            for (int i = 0; i < createIndexes.size(); i += 1000) {
-                if (isShutdown()) {
-                    return;
-                }
-
-                List<Index> indexes = createIndexes.subList(i, Math.min(createIndexes.size(), i + 1000));
+        addLemmaFrequencies(lemmaIds);
 
-                getTransactionTemplate().execute(
-                        new TransactionCallbackWithoutResult() {
-                            @Override
-                            protected void doInTransactionWithoutResult(TransactionStatus status) {
-                                indexes.forEach(index -> getIndexRepository().save(index));
-                            }
-                        }
-                );
-            }
-        } catch (InterruptedException ignored) {}
+        for (String lemmaString : lemmaStrings) {
+            addPosting(lemmaString, page.getId(), (float) ranks.applyAsDouble(lemmaString));
+        }
     }
 
     // Static methods
 
     /**
      * Extracts lemmas from text.
+     * <br>
+     * Collects offsets of every lemma occurrence, use {@link #getTextLemmaCounts(String)} if the offsets are not needed.
      *
      * @param text Text to extract lemmas from.
      *
@@ -131,40 +122,9 @@ public abstract class IndexTaskTextLemmasParser extends IndexTaskLemmaStopWordsF
      */
     public static Map<String, LemmaAttributes> getTextLemmas(String text) {
         Map<String, LemmaAttributes> index = new HashMap<>();
-        CharArraySet stopWords = getStopWords();
 
         try (
-                Analyzer analyzer = new ClassicAnalyzer();
-                TokenStream tokenStream = analyzer.tokenStream(null, text);
-                TokenStream wordStream = new WordDelimiterFilter(
-                        tokenStream,
-                        WordDelimiterIterator.DEFAULT_WORD_DELIM_TABLE,
-                        0,
-                        null
-                );
-                TokenStream stopStream = new StopFilter(wordStream, stopWords);
-
-                TokenStream engStream = new SnowballFilter(stopStream, new EnglishStemmer());
-                TokenStream rusStream = new SnowballFilter(engStream, new RussianStemmer());
-
-                // Remove useless numbers
-
-                TokenStream replaceStream01 = new PatternReplaceFilter(
-                        rusStream,
-                        Pattern.compile("\\d{5,}"),
-                        "",
-                        true
-                );
-                TokenStream replaceStream02 = new PatternReplaceFilter(
-                        replaceStream01,
-                        Pattern.compile("^\\d{1,3}$"),
-                        "",
-                        true
-                );
-
-                // Length limit
-
-                TokenStream stream = new LengthFilter(replaceStream02, 2, 255)
+                TokenStream stream = LEMMA_ANALYZER.tokenStream(null, text)
         ) {
             CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
             OffsetAttribute offset = stream.addAttribute(OffsetAttribute.class);
@@ -181,4 +141,89 @@ public abstract class IndexTaskTextLemmasParser extends IndexTaskLemmaStopWordsF
 
         return index;
     }
+
+    /**
+     * Counts lemmas of text.
+     *
+     * @param text Text to extract lemmas from.
+     *
+     * @return Lemmas and their numbers of occurrences.
+     */
+    public static LemmaCounter getTextLemmaCounts(String text) {
+        LemmaCounter counter = new LemmaCounter();
+
+        try (
+                TokenStream stream = LEMMA_ANALYZER.tokenStream(null, text)
+        ) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+
+            stream.reset();
+            while (stream.incrementToken()) {
+                counter.add(term);
+            }
+            stream.end();
+        } catch (IOException ignored) {}
+
+        return counter;
+    }
+
+    /**
+     * Lemmatization analyzer.
+     * <br>
+     * Adds lemmatization filters to {@link ClassicAnalyzer} token stream.
+     * Token stream chain is created once per thread and reset for every text analyzed.
+     */
+    private static class LemmaAnalyzer extends AnalyzerWrapper {
+        private final Analyzer classicAnalyzer;
+
+        /**
+         * Constructor of the analyzer.
+         *
+         * @param classicAnalyzer Analyzer to add filters to.
+         */
+        LemmaAnalyzer(Analyzer classicAnalyzer) {
+            super(classicAnalyzer.getReuseStrategy());
+            this.classicAnalyzer = classicAnalyzer;
+        }
+
+        @Override
+        protected Analyzer getWrappedAnalyzer(String fieldName) {
+            return classicAnalyzer;
+        }
+
+        @Override
+        protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
+            TokenStream wordStream = new WordDelimiterFilter(
+                    components.getTokenStream(),
+                    WordDelimiterIterator.DEFAULT_WORD_DELIM_TABLE,
+                    0,
+                    null
+            );
+            TokenStream stopStream = new StopFilter(wordStream, getStopWords());
+
+            TokenStream engStream = new SnowballFilter(stopStream, new EnglishStemmer());
+            TokenStream rusStream = new SnowballFilter(engStream, new RussianStemmer());
+
+            // Remove useless numbers
+
+            TokenStream replaceStream01 = new PatternReplaceFilter(
+                    rusStream,
+                    Pattern.compile("\\d{5,}"),
+                    "",
+                    true
+            );
+            TokenStream replaceStream02 = new PatternReplaceFilter(
+                    replaceStream01,
+                    Pattern.compile("^\\d{1,3}$"),
+                    "",
+                    true
+            );
+
+            // Length limit
+
+            TokenStream stream = new LengthFilter(replaceStream02, 2, 255);
+
+            return new TokenStreamComponents(components.getSource(), stream);
+        }
+    }
 }
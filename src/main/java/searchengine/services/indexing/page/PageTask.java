@@ -3,7 +3,7 @@ package searchengine.services.indexing.page;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
-import searchengine.services.indexing.page.abstracts.PageTaskChildTaskController;
+import searchengine.services.indexing.page.abstracts.PageTaskPageDownloader;
 import searchengine.services.indexing.site.abstracts.SiteTaskChildTaskController;
 
 import java.net.URI;
@@ -11,37 +11,33 @@ import java.net.URI;
 /**
  * Pages downloading thread class.
  * <br>
- * Starts child thread of {@link searchengine.services.indexing.index.IndexTask}.
- * <br>
  * Takes links from {@link searchengine.services.indexing.site.SiteTask} thread links queue.
  * <br>
- * Downloads, saves into database and puts pages on this thread pages queue
+ * Downloads, saves into database and puts pages on {@link searchengine.services.indexing.site.SiteTask} pages queue
  * for following parsing by a thread of {@link searchengine.services.indexing.index.IndexTask}.
  */
 @RequiredArgsConstructor
-public class PageTask extends PageTaskChildTaskController {
+public class PageTask extends PageTaskPageDownloader {
     @Getter
     private final SiteTaskChildTaskController siteTask;
 
     @Override
     protected void compute() {
         try {
-            startTask();
-
-            try {
-                while (true) {
-                    URI uri = siteTask.getLink();
+            while (true) {
+                URI uri = siteTask.getLink();
 
-                    if (isStopMessage(uri) || !processLink(uri)) {
-                        break;
-                    }
+                if (isStopMessage(uri) || !processLink(uri)) {
+                    break;
                 }
-            } catch (InterruptedException ignored) {}
-
-            stopTask();
+            }
+        } catch (InterruptedException ignored) {
         } catch (Exception e) {
             e.printStackTrace();
         }
+        try {
+            awaitRequests();
+        } catch (InterruptedException ignored) {}
     }
 
     /**
@@ -7,16 +7,32 @@ import org.apache.http.conn.HttpHostConnectException;
 
 import searchengine.dto.indexing.HttpPage;
 import searchengine.model.Page;
+import searchengine.services.indexing.site.SiteTask;
 
+import java.net.ConnectException;
 import java.net.URI;
+import java.net.http.HttpConnectTimeoutException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * {@link searchengine.services.indexing.page.PageTask} page downloading abstract class.
  */
-public abstract class PageTaskPageDownloader extends PageTaskPageQueue {
+public abstract class PageTaskPageDownloader extends PageTaskProxy {
+    private Semaphore requests = null;                  // Asynchronous requests in progress limiter
+    private int requestLimit = 0;
+
     /**
      * Downloads page, saves page database record
-     * and puts the page on this object pages queue.
+     * and puts the page on the site pages queue.
+     * <br>
+     * In the asynchronous fetch mode returns as soon as the request is scheduled to the reserved connection time,
+     * no thread waits for the time. The page is saved on completion by a worker of the indexing pool,
+     * not by http client thread, since saving waits for database and the pages queue.
      *
      * @param uri URI of the page to download.
      *
@@ -26,92 +42,248 @@ public abstract class PageTaskPageDownloader extends PageTaskPageQueue {
      * @throws InterruptedException Connection delay is interrupted.
      */
     protected boolean processLink(URI uri) throws InterruptedException {
-        String path = uri.getPath();
-        if (path == null || path.isBlank()) {
-            path = "/";
-        }
-        if (uri.getQuery() != null && !uri.getQuery().isBlank()) {
-            path += "?" + uri.getQuery();
-        }
+        String path = SiteTask.uri2path(uri);
 
         if (tryLockString(path) != null) {              // Path is processing by another thread
             doneJob();
             return true;
         }
 
+        boolean sent = false;                           // Asynchronous request is sent
+
         try {
-            Page page = getPageRepository()
-                    .findBySiteIdAndPath(getIndexingSiteId(), path)
-                    .orElse(null);
+            Page page = new Page();
+            page.setSiteId(getIndexingSiteId());
+            page.setPath(path);
 
-            if (page != null) {                         // Already indexed page
-                doneJob();
+            Page indexedPage = findIndexedPage(page);
+
+            if (indexedPage != null && isUnchangedPath(path)) {
+                if (isShutdown()) {
+                    doneJob();
+                    return false;
+                }
+
+                reuseIndexedPage(page, indexedPage);    // Not modified according to the sitemap
+                page.setEtag(indexedPage.getEtag());
+                page.setLastModified(indexedPage.getLastModified());
+
+                getPageRepository().save(page);
+                addPage(page);
                 return true;
             }
 
-            if (connectionDelay()) {                    // Shutdown is active
+            if (isAsyncFetch() ? isShutdown() : connectionDelay()) {     // Shutdown is active
                 doneJob();
                 return false;
             }
 
-            page = new Page();
-            page.setSiteId(getIndexingSiteId());
-            page.setPath(path);
+            // Validators of the page previous indexing or the site previous indexing time
 
-            Page indexedPage = findIndexedPage(page);
+            String ifModifiedSince = getHttpIndexedTime();
+            String ifNoneMatch = "";
 
-            try {
-                HttpPage httpPage = new HttpPage(uri, new String[]
-                        {
-                                "Accept:text/*,application/xml,application/*+xml",
-                                "Referer:" + getReferer(),
-                                "User-Agent:" + getUserAgent(),
-                                "If-Modified-Since:" + getHttpIndexedTime()
-                        }
-                );
-
-                switch (httpPage.getCode()) {
-                    case 200:
-                        page.setCode(httpPage.getCode());
-                        page.setContent(httpPage.getBody());
-                        break;
-                    case 304:
-                        if (indexedPage != null) {
-                            page.setCode(indexedPage.getCode());
-                            page.setContent(indexedPage.getContent());
-                            break;
-                        }
-                    default:
-                        page.setCode(httpPage.getCode());
-                        page.setContent(uri + "\r\n" + httpPage.getRequest());
-
-                        if (httpPage.getCode() >= 500 && httpPage.getCode() < 600) {
-                            shutdown(httpPage.getCode() + " server error");
-                        }
+            if (indexedPage != null) {
+                if (indexedPage.getLastModified() != null) {
+                    ifModifiedSince = indexedPage.getLastModified();
                 }
-            } catch (ParseException e) {            // Not indexed mime type
-                page.setCode(Page.NOT_A_PAGE_CODE);
-                page.setContent(e.getMessage());
-            } catch (NoHttpResponseException
-                     | ConnectTimeoutException
-                     | HttpHostConnectException e
-            ) {                                     // Try to connect again
-                System.out.println(e.getMessage());
-                addLink(uri);
-                doneJob();
+                if (indexedPage.getEtag() != null) {
+                    ifNoneMatch = indexedPage.getEtag();
+                }
+            }
+
+            if (!ifModifiedSince.isBlank() || !ifNoneMatch.isBlank()) {
+                countConditionalRequest();
+            }
+
+            String[] headers = new String[]
+                    {
+                            "Accept:text/*,application/xml,application/*+xml",
+                            "Referer:" + getReferer(),
+                            "User-Agent:" + getUserAgent(),
+                            "If-Modified-Since:" + ifModifiedSince,
+                            "If-None-Match:" + ifNoneMatch
+                    };
+
+            if (isAsyncFetch()) {
+                acquireRequest();
+
+                Page newPage = page;
+                String lockedPath = path;
+                ForkJoinPool pool = getPool();
+                long delay = reserveConnectionTime() - System.currentTimeMillis();
+
+                CompletableFuture
+                        .supplyAsync(this::isShutdown, CompletableFuture.delayedExecutor(
+                                Math.max(0L, delay),
+                                TimeUnit.MILLISECONDS,
+                                pool
+                        ))
+                        .thenCompose(shutdown -> shutdown
+                                ? CompletableFuture.<HttpPage>completedFuture(null)
+                                : HttpPage.download(uri, headers)
+                        )
+                        .whenCompleteAsync((httpPage, e) -> {
+                            try {
+                                if (httpPage == null && e == null) {    // Shutdown before the connection time
+                                    doneJob();
+                                } else {
+                                    savePage(uri, newPage, indexedPage, httpPage,
+                                            e instanceof CompletionException ? e.getCause() : e);
+                                }
+                            } catch (InterruptedException ignored) {
+                            } catch (RuntimeException ex) {     // Not saved, so no index task counts the job done
+                                ex.printStackTrace();
+                                doneJob();
+                            } finally {
+                                unlockString(lockedPath);
+                                requests.release();
+                            }
+                        }, pool);
+
+                sent = true;
                 return true;
-            } catch (Exception e) {                 // Fatal error
-                e.printStackTrace();
-                page.setCode(Page.FATAL_ERROR_CODE);
-                page.setContent(e.toString());
-                shutdown(e.getMessage());
             }
 
-            addPage(page);
+            HttpPage httpPage = null;
+            Exception error = null;
+
+            try {
+                httpPage = new HttpPage(uri, headers);
+            } catch (Exception e) {
+                error = e;
+            }
+
+            savePage(uri, page, indexedPage, httpPage, error);
             return true;
 
         } finally {
-            unlockString(path);
+            if (!sent) {
+                unlockString(path);
+            }
+        }
+    }
+
+    /**
+     * Saves page database record of the response and puts the page on the site pages queue.
+     * <br>
+     * The link is put back on the site links queue if the site is not connected.
+     *
+     * @param uri URI of the page downloaded.
+     * @param page New page to save.
+     * @param indexedPage Page of the previous indexing or null.
+     * @param httpPage Page downloaded or null if downloading failed.
+     * @param error Downloading error or null.
+     *
+     * @throws InterruptedException Waiting for the pages queue is interrupted.
+     */
+    private void savePage(URI uri, Page page, Page indexedPage, HttpPage httpPage, Throwable error)
+            throws InterruptedException {
+        if (error == null) {
+            switch (httpPage.getCode()) {
+                case 200:
+                    page.setCode(httpPage.getCode());
+                    page.setContent(httpPage.getBody());
+                    page.setHash(Page.hash(page.getContent()));
+                    page.setEtag(httpPage.getEtag());
+                    page.setLastModified(httpPage.getLastModified());
+
+                    if (indexedPage != null && page.getHash() != null && page.getHash().equals(indexedPage.getHash())) {
+                        reuseIndexedPage(page, indexedPage);    // Content is not changed
+                    }
+                    break;
+                case 304:
+                    countNotModified();
+
+                    if (indexedPage != null) {
+                        reuseIndexedPage(page, indexedPage);
+                        page.setEtag(httpPage.getEtag() != null ? httpPage.getEtag() : indexedPage.getEtag());
+                        page.setLastModified(httpPage.getLastModified() != null
+                                ? httpPage.getLastModified()
+                                : indexedPage.getLastModified()
+                        );
+                        break;
+                    }
+                default:
+                    page.setCode(httpPage.getCode());
+                    page.setContent(uri + "\r\n" + httpPage.getRequest());
+
+                    if (httpPage.getCode() >= 500 && httpPage.getCode() < 600) {
+                        shutdown(httpPage.getCode() + " server error");
+                    }
+            }
+        } else if (error instanceof ParseException) {   // Not indexed mime type
+            page.setCode(Page.NOT_A_PAGE_CODE);
+            page.setContent(error.getMessage());
+        } else if (error instanceof NoHttpResponseException
+                || error instanceof ConnectTimeoutException
+                || error instanceof HttpHostConnectException
+                || error instanceof HttpConnectTimeoutException
+                || error instanceof ConnectException
+        ) {                                             // Try to connect again
+            System.out.println(error.getMessage());
+            retryLink(uri);
+            doneJob();
+            return;
+        } else {                                        // Fatal error
+            error.printStackTrace();
+            page.setCode(Page.FATAL_ERROR_CODE);
+            page.setContent(error.toString());
+            shutdown(error.getMessage());
+        }
+
+        getPageRepository().save(page);
+        addPage(page);
+    }
+
+    /**
+     * Copies content of the page of previous indexing.
+     * <br>
+     * Parsed page is marked to copy its index records, so the page text is not analyzed again.
+     *
+     * @param page New page.
+     * @param indexedPage Page of the previous indexing.
+     */
+    private void reuseIndexedPage(Page page, Page indexedPage) {
+        page.setCode(indexedPage.getCode());
+        page.setContent(indexedPage.getContent());
+
+        if (indexedPage.getCode() != 200) {
+            return;
+        }
+
+        page.setHash(indexedPage.getHash() != null ? indexedPage.getHash() : Page.hash(page.getContent()));
+
+        if (indexedPage.getText() != null) {
+            page.setTitle(indexedPage.getTitle());
+            page.setText(indexedPage.getText());
+            page.setReusedPageId(indexedPage.getId());
+        }
+    }
+
+    /**
+     * Waits for a free slot of asynchronous requests in progress.
+     *
+     * @throws InterruptedException Waiting is interrupted.
+     */
+    private void acquireRequest() throws InterruptedException {
+        if (requests == null) {
+            requestLimit = getThreadsPerSite();
+            requests = new Semaphore(requestLimit);
+        }
+
+        requests.acquire();
+    }
+
+    /**
+     * Waits for all asynchronous requests in progress are completed.
+     *
+     * @throws InterruptedException Waiting is interrupted.
+     */
+    protected void awaitRequests() throws InterruptedException {
+        if (requests != null) {
+            requests.acquire(requestLimit);
+            requests.release(requestLimit);
         }
     }
 }
@@ -75,6 +75,24 @@ public abstract class PageTaskProxy extends RecursiveAction {
         return getSiteTask().getReferer();
     }
 
+    /**
+     * Maximum number of concurrent downloads of the site.
+     *
+     * @return Maximum number of downloads or 1 if the property is not configured.
+     */
+    public int getThreadsPerSite() {
+        return getSiteTask().getThreadsPerSite();
+    }
+
+    /**
+     * Download pages by non-blocking http client.
+     *
+     * @return true - asynchronous fetch mode.
+     */
+    public boolean isAsyncFetch() {
+        return getSiteTask().isAsyncFetch();
+    }
+
     /**
      * Returns indexing site entity object.
      *
@@ -134,12 +152,59 @@ public abstract class PageTaskProxy extends RecursiveAction {
     }
 
     /**
-     * Add link to the link queue.
+     * Whether the page is not modified since previous indexing according to the sitemap.
+     *
+     * @param path Page path.
+     *
+     * @return true - the page need not be downloaded.
+     */
+    protected boolean isUnchangedPath(String path) {
+        return getSiteTask().isUnchangedPath(path);
+    }
+
+    /**
+     * Counts page request sent with validators of previous indexing.
+     */
+    protected void countConditionalRequest() {
+        getSiteTask().countConditionalRequest();
+    }
+
+    /**
+     * Counts page request answered by 304 Not Modified.
+     */
+    protected void countNotModified() {
+        getSiteTask().countNotModified();
+    }
+
+    /**
+     * Whether shutdown process is active.
+     *
+     * @return true - shutdown is active.
+     */
+    protected boolean isShutdown() {
+        return getSiteTask().isShutdown();
+    }
+
+    /**
+     * Add link to the link queue again to retry downloading.
      *
      * @param uri Link to add.
      */
-    protected void addLink(URI uri) {
-        getSiteTask().addLink(uri);
+    protected void retryLink(URI uri) {
+        getSiteTask().retryLink(uri);
+    }
+
+    /**
+     * Add page to the site pages queue.
+     * <br>
+     * Waits if the queue is full.
+     *
+     * @param page Page to add.
+     *
+     * @throws InterruptedException Waiting is interrupted.
+     */
+    protected void addPage(Page page) throws InterruptedException {
+        getSiteTask().addPage(page);
     }
 
     /**
@@ -162,6 +227,15 @@ public abstract class PageTaskProxy extends RecursiveAction {
         return getSiteTask().connectionDelay();
     }
 
+    /**
+     * Reserves the next free connection time of the site.
+     *
+     * @return Connection time in ms since epoch.
+     */
+    protected long reserveConnectionTime() {
+        return getSiteTask().reserveConnectionTime();
+    }
+
     /**
      * Activates shutdown process.
      *
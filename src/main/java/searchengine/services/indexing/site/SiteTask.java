@@ -16,7 +16,8 @@ import java.util.concurrent.CountDownLatch;
 /**
  * Site indexing master thread class.
  * <br>
- * Starts first thread of {@link searchengine.services.indexing.page.PageTask}.
+ * Starts threads of {@link searchengine.services.indexing.index.IndexTask}
+ * and first thread of {@link searchengine.services.indexing.page.PageTask}.
  * <br>
  * Puts starting link of the site on this thread links queue
  * for following downloading by a thread of {@link searchengine.services.indexing.page.PageTask}.
@@ -73,6 +74,8 @@ public class SiteTask extends SiteTaskChildTaskController {
     @Override
     protected void compute() {
         try {
+            initLinks();
+
             if (!addLink(startUri)) {
                 return;
             }
@@ -105,26 +108,39 @@ public class SiteTask extends SiteTaskChildTaskController {
     }
 
     /**
-     * Synchronizes start indexing process till the start of first working thread and waits for the process to finish.
+     * Starts indexing process and waits for the process to finish.
+     * <br>
+     * The process is reported started before sitemap files are read.
+     * Page tasks are started after the sitemap links are queued, in synchronized block,
+     * so no job is done before the waiting starts.
      *
      * @throws InterruptedException Start indexing process was interrupted.
      * @throws IOException Database access error occurred.
      */
-    private synchronized void startSite() throws InterruptedException, IOException {
+    private void startSite() throws InterruptedException, IOException {
+        connectionDelay(false);                 // Connection time of robots.txt request
         getRobots();
         initSite();
 
-        // Start first working thread
+        // Start working threads
 
-        connectionDelay();
+        startIndexTasks();
 
         startedLatch.countDown();
 
-        // Wait for work is done or shutdown
+        seedSiteMaps();
 
-        try {
-            wait();
-        } catch (InterruptedException ignored) {}
+        synchronized (this) {
+            connectionDelay();
+
+            // Wait for work is done or shutdown
+
+            try {
+                if (!isShutdown()) {
+                    wait();
+                }
+            } catch (InterruptedException ignored) {}
+        }
     }
 
     /**
@@ -1,16 +1,19 @@
 package searchengine.services.indexing.site.abstracts;
 
+import searchengine.services.indexing.index.IndexTask;
 import searchengine.services.indexing.page.PageTask;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
 
 /**
  * {@link searchengine.services.indexing.site.SiteTask} child threads starter.
  */
-public abstract class SiteTaskChildTaskController extends SiteTaskSiteData {
+public abstract class SiteTaskChildTaskController extends SiteTaskPageQueue {
     private final List<ForkJoinTask<Void>> linkTasks = new ArrayList<>();
+    private final List<ForkJoinTask<Void>> pageTasks = new ArrayList<>();
     private long nextConnectionTime = 0L;
     private int addTaskCount = 0;
 
@@ -20,17 +23,30 @@ public abstract class SiteTaskChildTaskController extends SiteTaskSiteData {
      * @return Number of indexing tasks.
      */
     public int getIndexingTaskCount() {
-        return linkTasks.size();
+        return linkTasks.size() + pageTasks.size();
+    }
+
+    /**
+     * Starts all child threads of {@link IndexTask}.
+     */
+    protected void startIndexTasks() {
+        initPages();
+
+        for (int i = 0; i < getIndexTasksPerSite(); i++) {
+            pageTasks.add(new IndexTask(this).fork());
+        }
     }
 
     /**
      * Starts child thread of {@link PageTask}.
+     * <br>
+     * Only one thread is started in the asynchronous fetch mode.
      *
      * @return true - child thread is successfully started,
      * <br>false - child thread number limit is achieved.
      */
     private boolean startTask() {
-        if (linkTasks.size() < getThreadsPerSite()) {
+        if (linkTasks.size() < (isAsyncFetch() ? 1 : getThreadsPerSite())) {
             linkTasks.add(new PageTask(this).fork());
             return true;
         }
@@ -47,13 +63,71 @@ public abstract class SiteTaskChildTaskController extends SiteTaskSiteData {
 
         linkTasks.clear();
         clearLinks();
+
+        clearPages();
+        pageTasks.forEach(t -> {
+            try {
+                addStopPage();
+            } catch (InterruptedException ignored) {}
+        });
+        pageTasks.forEach(ForkJoinTask::join);
+
+        pageTasks.clear();
+        clearPages();
         clearJobCount();
     }
 
+    /**
+     * Reserves the next free connection time of the site.
+     * <br>
+     * Every call reserves its own time, so concurrent callers wait for their times with no lock held.
+     * The interval is the longest of configured one and robots Crawl-delay.
+     * <br>
+     * Starts new child thread if the interval is overdue or no child thread is running yet.
+     *
+     * @return Connection time in ms since epoch.
+     */
+    public long reserveConnectionTime() {
+        return reserveConnectionTime(true);
+    }
+
+    /**
+     * Reserves the next free connection time of the site.
+     *
+     * @param addTask Start new child thread if the interval is overdue.
+     *
+     * @return Connection time in ms since epoch.
+     */
+    private long reserveConnectionTime(boolean addTask) {
+        synchronized (linkTasks) {
+            long now = System.currentTimeMillis();
+            long connectionTime = Math.max(now, nextConnectionTime);
+
+            nextConnectionTime = connectionTime + Math.max(getConnectionInterval(), getCrawlDelay());
+
+            if (!addTask) {
+                return connectionTime;
+            }
+
+            if (linkTasks.isEmpty()) {
+                addTaskCount = 3;               // First task, the earlier requests may hold the interval
+                startTask();
+            } else if (connectionTime > now) {
+                addTaskCount = 3;
+            } else if (--addTaskCount <= 0) {
+                addTaskCount = 3;
+                startTask();
+            }
+
+            return connectionTime;
+        }
+    }
+
     /**
      * Delay till connection interval is due.
      * <br>
-     * Starts new child thread if the interval is overdue.
+     * Waits for the connection time reserved by {@link #reserveConnectionTime()}.
+     * The pool may run other tasks in place of the waiting thread.
      *
      * @return true - shutdown is active,
      * <br>false - continue working
@@ -61,23 +135,33 @@ public abstract class SiteTaskChildTaskController extends SiteTaskSiteData {
      * @throws InterruptedException Delay is interrupted.
      */
     public boolean connectionDelay() throws InterruptedException {
+        return connectionDelay(true);
+    }
+
+    @Override
+    public boolean connectionDelay(boolean addTask) throws InterruptedException {
         if (isShutdown()) {
             return true;
         }
 
-        synchronized (linkTasks) {
-            long delay = nextConnectionTime - System.currentTimeMillis();
+        long connectionTime = reserveConnectionTime(addTask);
 
-            if (delay > 0) {
-                addTaskCount = 3;
-                Thread.sleep(delay);
-            } else if (--addTaskCount <= 0) {
-                addTaskCount = 3;
-                startTask();
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override
+            public boolean block() throws InterruptedException {
+                long delay = connectionTime - System.currentTimeMillis();
+
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+                return true;
             }
 
-            nextConnectionTime = System.currentTimeMillis() + getConnectionInterval();
-        }
+            @Override
+            public boolean isReleasable() {
+                return System.currentTimeMillis() >= connectionTime;
+            }
+        });
 
         return isShutdown();
     }
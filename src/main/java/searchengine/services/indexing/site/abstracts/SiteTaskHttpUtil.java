@@ -7,11 +7,15 @@ import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@link searchengine.services.indexing.site.SiteTask} class of http and uri support methods.
  */
 public abstract class SiteTaskHttpUtil extends SiteTaskShutdown {
+    private final AtomicInteger conditionalRequestCount = new AtomicInteger();
+    private final AtomicInteger notModifiedCount = new AtomicInteger();
+
     /**
      * Returns current site root URI.
      *
@@ -26,6 +30,38 @@ public abstract class SiteTaskHttpUtil extends SiteTaskShutdown {
      */
     public abstract Date getIndexedTime();
 
+    /**
+     * Returns number of page requests sent with validators of previous indexing.
+     *
+     * @return Number of requests.
+     */
+    public int getConditionalRequestCount() {
+        return conditionalRequestCount.get();
+    }
+
+    /**
+     * Returns number of page requests answered by 304 Not Modified.
+     *
+     * @return Number of requests.
+     */
+    public int getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    /**
+     * Counts page request sent with validators of previous indexing.
+     */
+    public void countConditionalRequest() {
+        conditionalRequestCount.incrementAndGet();
+    }
+
+    /**
+     * Counts page request answered by 304 Not Modified.
+     */
+    public void countNotModified() {
+        notModifiedCount.incrementAndGet();
+    }
+
     /**
      * Compiles URL from current site root link and absolute path provided.
      *
@@ -91,6 +127,24 @@ public abstract class SiteTaskHttpUtil extends SiteTaskShutdown {
         return uri;
     }
 
+    /**
+     * Returns page database path of the URI.
+     *
+     * @param uri URI of the page.
+     *
+     * @return Absolute path with query.
+     */
+    public static String uri2path(URI uri) {
+        String path = uri.getPath();
+        if (path == null || path.isBlank()) {
+            path = "/";
+        }
+        if (uri.getQuery() != null && !uri.getQuery().isBlank()) {
+            path += "?" + uri.getQuery();
+        }
+        return path;
+    }
+
     /**
      * Creates URI object based on string link and trim its path part.
      *
@@ -0,0 +1,140 @@
+package searchengine.services.indexing.site.abstracts;
+
+import searchengine.model.Lemma;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link searchengine.services.indexing.site.SiteTask} class lemma dictionary of indexing site.
+ * <br>
+ * Caches lemma record ids and counts lemma frequencies to write them to database in bulk.
+ * Resolves lemma record ids with no lock, equal lemmas are made unique by database.
+ * The cache is flushed and cleared when its size exceeds the lemma cache size limit.
+ */
+public abstract class SiteTaskLemmaDictionary extends SiteTaskSiteMap {
+    private final Map<String, LemmaEntry> lemmaEntries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns indexing site database record id.
+     *
+     * @return Site id.
+     */
+    public abstract Integer getIndexingSiteId();
+
+    /**
+     * Returns number of lemmas cached.
+     *
+     * @return Number of lemmas.
+     */
+    public int getLemmaCacheCount() {
+        return lemmaEntries.size();
+    }
+
+    /**
+     * Returns ids of indexing site lemma records.
+     * <br>
+     * Creates the records which do not exist by batch statements.
+     *
+     * @param lemmas Lemmas.
+     *
+     * @return Lemma to record id map.
+     */
+    public Map<String, Integer> getLemmaIds(Collection<String> lemmas) {
+        Map<String, Integer> ids = new HashMap<>(lemmas.size() * 4 / 3 + 1);
+        List<String> absentLemmas = new ArrayList<>();
+
+        for (String lemma : lemmas) {
+            LemmaEntry entry = lemmaEntries.get(lemma);
+
+            if (entry == null) {
+                absentLemmas.add(lemma);
+            } else {
+                ids.put(lemma, entry.id);
+            }
+        }
+
+        if (!absentLemmas.isEmpty()) {
+            if (lemmaEntries.size() + absentLemmas.size() > getLemmaCacheSize()) {
+                flushLemmas();
+            }
+
+            Lemma.upsert(getIndexingSiteId(), absentLemmas, getBatchSize()).forEach((lemma, id) -> {
+                lemmaEntries.putIfAbsent(lemma, new LemmaEntry(id));
+                ids.put(lemma, id);
+            });
+        }
+
+        return ids;
+    }
+
+    /**
+     * Increments frequencies of lemmas found on a page.
+     * <br>
+     * Frequencies of lemmas not cached are written to database at once.
+     *
+     * @param lemmaIds Lemma to record id map of the page.
+     */
+    public void addLemmaFrequencies(Map<String, Integer> lemmaIds) {
+        Map<Integer, Integer> frequencies = new HashMap<>();
+
+        lemmaIds.forEach((lemma, id) -> {
+            LemmaEntry entry = lemmaEntries.computeIfPresent(lemma, (key, value) -> {
+                if (value.id == id) {
+                    value.frequency++;
+                }
+                return value;
+            });
+
+            if (entry == null || entry.id != id) {
+                frequencies.merge(id, 1, Integer::sum);
+            }
+        });
+
+        if (!frequencies.isEmpty()) {
+            Lemma.addFrequencies(frequencies, getBatchSize());
+        }
+    }
+
+    /**
+     * Writes cached lemma frequencies to database and clears the cache.
+     */
+    protected void flushLemmas() {
+        Map<Integer, Integer> frequencies = new HashMap<>();
+
+        for (String lemma : lemmaEntries.keySet()) {
+            LemmaEntry entry = lemmaEntries.remove(lemma);
+
+            if (entry != null && entry.frequency > 0) {
+                frequencies.put(entry.id, entry.frequency);
+            }
+        }
+
+        if (!frequencies.isEmpty()) {
+            Lemma.addFrequencies(frequencies, getBatchSize());
+        }
+    }
+
+    /**
+     * Clears lemma dictionary.
+     */
+    protected void clearLemmas() {
+        lemmaEntries.clear();
+    }
+
+    /**
+     * Cached lemma record id and number of pages the lemma is found on, not written to database yet.
+     */
+    private static class LemmaEntry {
+        private final int id;
+        private int frequency = 0;
+
+        LemmaEntry(int id) {
+            this.id = id;
+        }
+    }
+}
@@ -2,26 +2,41 @@ package searchengine.services.indexing.site.abstracts;
 
 import lombok.Getter;
 
+import searchengine.dto.indexing.LinkFrontier;
+import searchengine.dto.indexing.PathHashSet;
+
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
 
 /**
  * {@link searchengine.services.indexing.site.SiteTask} class link queue implementation.
+ * <br>
+ * Every page path is queued once during the site indexing, whether it is queued, downloaded or indexed.
+ * <br>
+ * Links beyond the configured number are kept in a temporary file, paths seen are kept as hashes,
+ * so the memory used does not depend on the site size.
  */
 public abstract class SiteTaskLinkQueue extends SiteTaskJobCounter {
     private final String stopMessage = "http://0:0";     // Force child thread to finish
 
-    private final BlockingDeque<String> linkQueue = new LinkedBlockingDeque<>();
+    private LinkFrontier linkQueue = new LinkFrontier(Integer.MAX_VALUE);
+    private final PathHashSet seenPaths = new PathHashSet();
 
     // Number of url to process limit, < 0 - all possible
     @Getter
     private int linkLimitCount = 1;
 
+    /**
+     * Creates empty link queue of the memory limit configured.
+     */
+    protected void initLinks() {
+        linkQueue = new LinkFrontier(getLinkQueueSize());
+    }
+
     protected void clearLinks() {
         linkQueue.clear();
+        seenPaths.clear();
     }
 
     protected void disableLinkLimitCount() {
@@ -29,14 +44,10 @@ public abstract class SiteTaskLinkQueue extends SiteTaskJobCounter {
     }
 
     /**
-     * Add stop link to this object pages queue to exit child thread.
-     * <br>
-     * Waits if the queue is full.
+     * Add stop link to this object links queue to exit child thread.
      */
     protected void addStopLink() {
-        try {
-            linkQueue.putFirst(stopMessage);
-        } catch (InterruptedException ignored) {}
+        linkQueue.putFirst(stopMessage);
     }
 
     /**
@@ -61,22 +72,38 @@ public abstract class SiteTaskLinkQueue extends SiteTaskJobCounter {
             String url = uri.toString();
 
             if (!getRootUri().relativize(uri).isAbsolute()
-                    && !linkQueue.contains(url)
                     && queryRobots(uri)
+                    && seenPaths.add(uri2path(uri))
             ) {
-                startJob();
-                try {
-                    linkQueue.put(url);
-                    return true;
-                } catch (InterruptedException e) {
-                    doneJob();
-                }
+                putLink(url);
+                return true;
             }
         } catch (URISyntaxException ignored) {}
 
         return false;
     }
 
+    /**
+     * Puts link on the link queue and starts its job.
+     *
+     * @param url Link to put.
+     */
+    private void putLink(String url) {
+        startJob();
+        linkQueue.put(url);
+    }
+
+    /**
+     * Add link to the link queue again to retry downloading.
+     * <br>
+     * The link has been added to queue before, so it is not checked.
+     *
+     * @param uri Link to add.
+     */
+    public void retryLink(URI uri) {
+        putLink(uri.toString());
+    }
+
     /**
      * Add link to the link queue.
      * <br>
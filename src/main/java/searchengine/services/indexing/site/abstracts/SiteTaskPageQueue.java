@@ -1,4 +1,4 @@
-package searchengine.services.indexing.page.abstracts;
+package searchengine.services.indexing.site.abstracts;
 
 import searchengine.model.Page;
 
@@ -6,11 +6,22 @@ import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.LinkedBlockingDeque;
 
 /**
- * {@link searchengine.services.indexing.page.PageTask} page queue implementation abstract class.
+ * {@link searchengine.services.indexing.site.SiteTask} class page queue implementation.
+ * <br>
+ * Pages downloaded by all {@link searchengine.services.indexing.page.PageTask} threads of the site
+ * are indexed by all {@link searchengine.services.indexing.index.IndexTask} threads of the site.
  */
-public abstract class PageTaskPageQueue extends PageTaskProxy {
+public abstract class SiteTaskPageQueue extends SiteTaskSiteData {
     private final Page stopMessage = new Page();     // Force child thread to finish
-    private final BlockingDeque<Page> pageQueue = new LinkedBlockingDeque<>(5);
+
+    private BlockingDeque<Page> pageQueue = new LinkedBlockingDeque<>();
+
+    /**
+     * Creates empty page queue of the size limit configured.
+     */
+    protected void initPages() {
+        pageQueue = new LinkedBlockingDeque<>(getPageQueueSize());
+    }
 
     protected void clearPages() {
         pageQueue.clear();
@@ -36,8 +47,7 @@ public abstract class PageTaskPageQueue extends PageTaskProxy {
      *
      * @throws InterruptedException Waiting is interrupted.
      */
-    protected void addPage(Page page) throws InterruptedException {
-        getPageRepository().save(page);
+    public void addPage(Page page) throws InterruptedException {
         pageQueue.put(page);
     }
 
@@ -13,6 +13,7 @@ import searchengine.dao.PageRepository;
 import searchengine.dao.SiteRepository;
 
 import searchengine.services.indexing.IndexingService;
+import searchengine.services.search.postings.PostingIndexService;
 
 import java.util.concurrent.RecursiveAction;
 
@@ -59,6 +60,15 @@ public abstract class SiteTaskProxy extends RecursiveAction {
         return getService().getIndexRepository();
     }
 
+    /**
+     * Returns {@link PostingIndexService} object.
+     *
+     * @return {@link PostingIndexService} object.
+     */
+    public PostingIndexService getPostingIndexService() {
+        return getService().getPostingIndexService();
+    }
+
     /**
      * UserAgent http request header value.
      *
@@ -95,6 +105,72 @@ public abstract class SiteTaskProxy extends RecursiveAction {
         return getSiteSettings().getConnectionInterval();
     }
 
+    /**
+     * Download pages by non-blocking http client.
+     * <br>
+     * One thread sends requests of the site, the number of requests in progress
+     * is limited by {@link #getThreadsPerSite()}.
+     *
+     * @return true - asynchronous fetch mode.
+     */
+    public boolean isAsyncFetch() {
+        return getService().getApplicationSettings().getAsyncFetch();
+    }
+
+    /**
+     * Add links of sitemap files to the link queue at the start of site indexing.
+     *
+     * @return true - sitemap files are read.
+     */
+    public boolean isSiteMapSeeding() {
+        return getService().getApplicationSettings().getSiteMapSeeding();
+    }
+
+    /**
+     * Number of concurrent threads parsing and saving pages of the site.
+     *
+     * @return Number of threads, see {@link searchengine.config.ApplicationSettings#countIndexTasksPerSite()}.
+     */
+    public int getIndexTasksPerSite() {
+        return getService().getApplicationSettings().countIndexTasksPerSite();
+    }
+
+    /**
+     * Maximum number of links waiting for downloading, kept in memory.
+     *
+     * @return Number of links or 100000 if the property is not configured.
+     */
+    public int getLinkQueueSize() {
+        return getService().getApplicationSettings().getLinkQueueSize();
+    }
+
+    /**
+     * Maximum number of downloaded pages waiting for parsing.
+     *
+     * @return Number of pages or 20 if the property is not configured.
+     */
+    public int getPageQueueSize() {
+        return getService().getApplicationSettings().getPageQueueSize();
+    }
+
+    /**
+     * Maximum number of records of a database batch statement.
+     *
+     * @return Batch size or 1000 if the property is not configured.
+     */
+    public int getBatchSize() {
+        return getService().getApplicationSettings().getBatchSize();
+    }
+
+    /**
+     * Maximum number of lemmas cached by the site indexing process.
+     *
+     * @return Number of lemmas or 100000 if the property is not configured.
+     */
+    public int getLemmaCacheSize() {
+        return getService().getApplicationSettings().getLemmaCacheSize();
+    }
+
     /**
      * Maximum number of concurrent threads indexing the site.
      *
@@ -1,10 +1,12 @@
 package searchengine.services.indexing.site.abstracts;
 
+import com.panforge.robotstxt.Grant;
 import com.panforge.robotstxt.RobotsTxt;
 
 import searchengine.dto.indexing.HttpPage;
 
 import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.net.URI;
 
@@ -14,6 +16,7 @@ import java.net.URI;
 public abstract class SiteTaskRobotRules extends SiteTaskHttpUtil {
     private RobotsTxt robotsTxt = null;
     private List<String> siteMapLinks = null;
+    private long crawlDelay = 0;
 
     /**
      * Whether the link is allowed by robots rules.
@@ -30,6 +33,24 @@ public abstract class SiteTaskRobotRules extends SiteTaskHttpUtil {
             );
     }
 
+    /**
+     * Returns links of sitemap files listed in robots.txt.
+     *
+     * @return List of links or null if robots.txt is not found.
+     */
+    protected List<String> getSiteMapLinks() {
+        return siteMapLinks;
+    }
+
+    /**
+     * Minimum time interval between http requests to the site, required by robots rules.
+     *
+     * @return Time interval in ms, 0 - no interval is required.
+     */
+    protected long getCrawlDelay() {
+        return isIgnoreRobotRules() ? 0 : crawlDelay;
+    }
+
     /**
      * Initializes robots rules for the site.
      */
@@ -47,8 +68,16 @@ public abstract class SiteTaskRobotRules extends SiteTaskHttpUtil {
             );
 
             if (httpPage.getCode() == 200) {
-                robotsTxt = RobotsTxt.read(new ByteArrayInputStream(httpPage.getBodyAsBytes()));
+                robotsTxt = RobotsTxt.read(new ByteArrayInputStream(
+                        httpPage.getBody().getBytes(StandardCharsets.UTF_8)
+                ));
                 siteMapLinks = robotsTxt.getSitemaps();
+
+                Grant grant = robotsTxt.ask(getUserAgent(), "/");
+
+                if (grant != null && grant.getCrawlDelay() != null) {
+                    crawlDelay = grant.getCrawlDelay() * 1000L;
+                }
             }
         } catch (Exception ignored) {}
     }
@@ -59,5 +88,6 @@ public abstract class SiteTaskRobotRules extends SiteTaskHttpUtil {
     private void clearRobotsRules() {
         robotsTxt = null;
         siteMapLinks = null;
+        crawlDelay = 0;
     }
 }
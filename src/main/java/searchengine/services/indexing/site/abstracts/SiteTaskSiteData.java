@@ -5,15 +5,15 @@ import lombok.Getter;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import searchengine.model.*;
+import searchengine.services.search.postings.MemorySiteIndex;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * {@link searchengine.services.indexing.site.SiteTask} site data related methods.
  */
-public abstract class SiteTaskSiteData extends SiteTaskLinkQueue {
+public abstract class SiteTaskSiteData extends SiteTaskLemmaDictionary {
     /**
      * Site entity indexing at the moment.
      */
@@ -26,6 +26,11 @@ public abstract class SiteTaskSiteData extends SiteTaskLinkQueue {
     @Getter
     private Site indexedSite = null;
 
+    /**
+     * In-memory index postings of indexing site or null if the index is disabled.
+     */
+    private MemorySiteIndex.Builder postings = null;
+
     /**
      * Refreshes site entity fields of the object with database data.
      *
@@ -73,6 +78,7 @@ public abstract class SiteTaskSiteData extends SiteTaskLinkQueue {
      *
      * @return Site id or null if indexing site entity is not loaded.
      */
+    @Override
     public Integer getIndexingSiteId() {
         if (indexingSite != null) {
             return indexingSite.getId();
@@ -105,6 +111,21 @@ public abstract class SiteTaskSiteData extends SiteTaskLinkQueue {
         return null;
     }
 
+    /**
+     * Adds posting of a lemma to in-memory index of the indexing site.
+     *
+     * @param lemma Lemma.
+     * @param pageId Page id.
+     * @param rank Rank of the lemma on the page.
+     */
+    public void addPosting(String lemma, int pageId, float rank) {
+        MemorySiteIndex.Builder builder = postings;
+
+        if (builder != null) {
+            builder.add(lemma, pageId, rank);
+        }
+    }
+
     /**
      * Initialises database data for starting new indexing process.
      *
@@ -129,6 +150,9 @@ public abstract class SiteTaskSiteData extends SiteTaskLinkQueue {
 
             getSiteRepository().save(indexingSite);
         }
+
+        clearLemmas();
+        postings = getPostingIndexService().newBuilder();
     }
 
     /**
@@ -136,6 +160,7 @@ public abstract class SiteTaskSiteData extends SiteTaskLinkQueue {
      */
     protected void doneSite() {
         if (!findSite(true)) {                          // Broken database
+            clearLemmas();
             return;
         }
 
@@ -146,11 +171,14 @@ public abstract class SiteTaskSiteData extends SiteTaskLinkQueue {
         if (isShutdown()) {
             getIndexingSite().setStatus(IndexingStatus.FAILED);
             getSiteRepository().save(getIndexingSite());
+            clearLemmas();
+            postings = null;
             return;
         }
 
         // Update lemmas data
 
+        flushLemmas();
         updateLemmas();
 
         // One-page indexing
@@ -158,6 +186,7 @@ public abstract class SiteTaskSiteData extends SiteTaskLinkQueue {
         donePage();
 
         if (!findSite(true)) {          // There was one page indexing
+            postings = null;
             return;
         }
 
@@ -182,102 +211,79 @@ public abstract class SiteTaskSiteData extends SiteTaskLinkQueue {
                     }
                 }
         );
+
+        // Replace search index of the site
+
+        if (getIndexingSite().getStatus() == IndexingStatus.INDEXED) {
+            getPostingIndexService().publish(getIndexingSiteId(), postings);
+            getPostingIndexService().remove(getIndexedSiteId());
+        }
+        postings = null;
     }
 
     /**
      * Finalises one page indexing.
+     * <br>
+     * Merges pages of indexing site into indexed site by bulk statements, replacing equal indexed pages.
+     * Only index records of the merged pages are changed.
+     * <br>
+     * Search index of the indexed site is updated by postings of the merged and replaced pages only.
      */
     private void donePage() {
         if (getLinkLimitCount() >= 0 && getIndexedSite() != null) {
-            for (Page page : getPageRepository().findAllBySiteId(getIndexingSiteId())) {
-                Map<Integer, Lemma> deleteLemmas = new HashMap<>();
-                Map<Integer, Lemma> updateLemmas = new HashMap<>();
-                List<Index> updateIndexes = new ArrayList<>();
-
-                findPageLemmas(page).forEach(indexingLemma -> {
-                    Lemma indexedLemma = getLemmaRepository()
-                            .findBySiteIdAndLemma(getIndexedSiteId(), indexingLemma.getLemma())
-                            .orElse(null);
-
-                    if (indexedLemma != null) {
-                        int id = indexedLemma.getId();
-
-                        indexedLemma.setFrequency(indexedLemma.getFrequency() + indexingLemma.getFrequency());
-                        updateLemmas.put(id, indexedLemma);
-
-                        getIndexRepository().findAllByLemmaId(indexingLemma.getId()).forEach(index -> {
-                            index.setLemmaId(id);
-                            updateIndexes.add(index);
-                        });
-
-                        deleteLemmas.put(indexingLemma.getId(), indexingLemma);
-                    } else {
-                        indexingLemma.setSiteId(getIndexedSiteId());
-                        updateLemmas.put(indexingLemma.getId(), indexingLemma);
-                    }
-                });
-
-                Page indexedPage = findIndexedPage(page, true);
+            Integer indexingSiteId = getIndexingSiteId();
+            Integer indexedSiteId = getIndexedSiteId();
 
-                if (indexedPage != null) {
-                    findPageLemmas(indexedPage).forEach(lemma -> {
-                        int id = lemma.getId();
+            boolean updateIndex = getPostingIndexService().isEnabled();
+            Set<Integer> pageIds = new HashSet<>();
+            Set<String> lemmas = new HashSet<>();
+            MemorySiteIndex.Builder pagePostings = new MemorySiteIndex.Builder();
 
-                        if (updateLemmas.containsKey(id)) {
-                            lemma = updateLemmas.get(id);
-                        }
-                        lemma.setFrequency(lemma.getFrequency() - 1);
+            for (Page page : getPageRepository().findAllBySiteId(indexingSiteId)) {
+                long startTime = System.currentTimeMillis();
+                Page indexedPage = findIndexedPage(page, true);
 
-                        if (lemma.getFrequency() > 0) {
-                            updateLemmas.put(id, lemma);
-                        } else {
-                            updateLemmas.remove(id);
-                            deleteLemmas.put(id, lemma);
-                        }
-                    });
+                if (updateIndex && indexedPage != null) {
+                    pageIds.add(indexedPage.getId());
+                    lemmas.addAll(Index.findPageRanks(indexedPage.getId()).keySet());
                 }
 
-                page.setSiteId(getIndexedSiteId());
-
                 getTransactionTemplate().execute(
                         new TransactionCallbackWithoutResult() {
                             @Override
                             protected void doInTransactionWithoutResult(TransactionStatus status) {
-                                updateLemmas.values().forEach(lemma -> getLemmaRepository().save(lemma));
-                                updateIndexes.forEach(index -> getIndexRepository().save(index));
-                                deleteLemmas.values().forEach(lemma -> getLemmaRepository().delete(lemma));
-
                                 if (indexedPage != null) {
-                                    getPageRepository().delete(indexedPage);
+                                    Lemma.decrementFrequencies(indexedPage.getId());
+                                    Page.deleteById(indexedPage.getId());
                                 }
 
-                                getPageRepository().save(page);
+                                Lemma.mergeFrequencies(page.getId(), indexingSiteId, indexedSiteId);
+                                Index.moveToSite(page.getId(), indexingSiteId, indexedSiteId);
+                                Lemma.moveToSite(page.getId(), indexingSiteId, indexedSiteId);
+
+                                Lemma.deleteUnused(indexingSiteId);
+                                Lemma.deleteUnused(indexedSiteId);
+
+                                Page.moveToSite(page.getId(), indexedSiteId);
                             }
                         }
                 );
+
+                if (updateIndex) {
+                    pageIds.add(page.getId());
+                    Index.findPageRanks(page.getId()).forEach((lemma, rank) ->
+                            pagePostings.add(lemma, page.getId(), rank)
+                    );
+                }
+
+                getLogger().info("Merge page " + baseUrl(page.getPath()) + " duration "
+                        + (System.currentTimeMillis() - startTime) + " ms");
             }
 
-            Site.delete(getIndexingSiteId());
-        }
-    }
+            Site.delete(indexingSiteId);
 
-    /**
-     * Finds all lemmas of the page provided.
-     *
-     * @param page Page to find lemmas of.
-     *
-     * @return List of lemmas.
-     */
-    private List<Lemma> findPageLemmas(Page page) {
-        return getIndexRepository()
-                .findAllByPageId(page.getId())
-                .stream()
-                .map(Index::getLemmaId)
-                .distinct()
-                .map(lemmaId -> getLemmaRepository().findById(lemmaId).orElse(null))
-                .filter(Objects::nonNull)
-                .filter(lemma -> Objects.equals(lemma.getSiteId(), page.getSiteId()))
-                .collect(Collectors.toList());
+            getPostingIndexService().replacePages(indexedSiteId, pageIds, lemmas, pagePostings);
+        }
     }
 
     /**
@@ -311,53 +317,19 @@ public abstract class SiteTaskSiteData extends SiteTaskLinkQueue {
     /**
      * Calculates frequency value of every lemma record has the value equal to zero.
      * <br>
+     * Frequencies of lemmas counted by lemma dictionary are already written.
+     * <br>
      * Removes excess lemma records.
      */
     private void updateLemmas() {
-        List<Lemma> updateLemmas = new ArrayList<>();
-        List<Lemma> deleteLemmas = new ArrayList<>();
-
-        // Calculate lemmas data
-
-        getLemmaRepository().findAllBySiteIdAndFrequency(getIndexingSiteId(), 0).forEach(lemma -> {
-            int count = (int) getIndexRepository().countByLemmaId(lemma.getId());
-
-            if (count > 0) {
-                lemma.setFrequency(count);
-                updateLemmas.add(lemma);
-            } else {
-                deleteLemmas.add(lemma);
-            }
-        });
-
-        // Update lemmas
-
-        for (int i = 0; i < updateLemmas.size(); i += 1000) {
-            List<Lemma> lemmas = updateLemmas.subList(i, Math.min(updateLemmas.size(), i + 1000));
-
-            getTransactionTemplate().execute(
-                    new TransactionCallbackWithoutResult() {
-                        @Override
-                        protected void doInTransactionWithoutResult(TransactionStatus status) {
-                            lemmas.forEach(lemma -> getLemmaRepository().save(lemma));
-                        }
-                    }
-            );
-        }
-
-        // Remove excess lemmas
-
-        for (int i = 0; i < deleteLemmas.size(); i += 1000) {
-            List<Lemma> lemmas = deleteLemmas.subList(i, Math.min(deleteLemmas.size(), i + 1000));
-
-            getTransactionTemplate().execute(
-                    new TransactionCallbackWithoutResult() {
-                        @Override
-                        protected void doInTransactionWithoutResult(TransactionStatus status) {
-                            lemmas.forEach(lemma -> getLemmaRepository().delete(lemma));
-                        }
+        getTransactionTemplate().execute(
+                new TransactionCallbackWithoutResult() {
+                    @Override
+                    protected void doInTransactionWithoutResult(TransactionStatus status) {
+                        Lemma.countFrequencies(getIndexingSiteId());
+                        Lemma.deleteUnused(getIndexingSiteId());
                     }
-            );
-        }
+                }
+        );
     }
 }
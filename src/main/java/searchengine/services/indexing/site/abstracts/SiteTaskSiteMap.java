@@ -0,0 +1,146 @@
+package searchengine.services.indexing.site.abstracts;
+
+import searchengine.dto.indexing.HttpPage;
+import searchengine.dto.indexing.PathHashSet;
+import searchengine.dto.indexing.SiteMapParser;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link searchengine.services.indexing.site.SiteTask} class sitemap link source.
+ * <br>
+ * Links of sitemap files are added to the link queue before the crawling starts.
+ * In update mode pages not modified since previous indexing according to the sitemap are marked unchanged
+ * and are copied from the previous indexing with no download.
+ */
+public abstract class SiteTaskSiteMap extends SiteTaskLinkQueue {
+    private static final int SITE_MAP_LIMIT = 1000;     // Maximum number of sitemap files of a site
+
+    private final PathHashSet unchangedPaths = new PathHashSet();
+
+    /**
+     * Delay till connection interval is due.
+     *
+     * @param addTask Start new child thread if the interval is overdue.
+     *
+     * @return true - shutdown is active,
+     * <br>false - continue working
+     *
+     * @throws InterruptedException Delay is interrupted.
+     */
+    public abstract boolean connectionDelay(boolean addTask) throws InterruptedException;
+
+    /**
+     * Whether the page is not modified since previous indexing according to the sitemap.
+     *
+     * @param path Page path.
+     *
+     * @return true - the page need not be downloaded.
+     */
+    public boolean isUnchangedPath(String path) {
+        return unchangedPaths.contains(path);
+    }
+
+    /**
+     * Adds links of the site sitemap files to the link queue.
+     * <br>
+     * Sitemap files listed in robots.txt are read, or /sitemap.xml if there is no list.
+     * Nested sitemap files of sitemap index files are read as well.
+     * <br>
+     * Sitemap requests keep the site connection interval, no child thread is started.
+     */
+    protected void seedSiteMaps() {
+        unchangedPaths.clear();
+
+        if (!isSiteMapSeeding() || getLinkLimitCount() >= 0) {  // Disabled or one page indexing
+            return;
+        }
+
+        Deque<String> siteMaps = new ArrayDeque<>();
+        Set<String> readSiteMaps = new HashSet<>();
+        List<String> robotsSiteMaps = getSiteMapLinks();
+
+        if (robotsSiteMaps != null && !robotsSiteMaps.isEmpty()) {
+            siteMaps.addAll(robotsSiteMaps);
+        } else {
+            siteMaps.add(getRootUri() + "/sitemap.xml");
+        }
+
+        Date indexedTime = isUpdate() ? getIndexedTime() : null;
+        String[] headers = new String[]
+                {
+                        "Referer:" + getReferer(),
+                        "User-Agent:" + getUserAgent()
+                };
+        int[] linkCount = new int[1];
+
+        while (!siteMaps.isEmpty() && readSiteMaps.size() < SITE_MAP_LIMIT && !isShutdown()) {
+            String link = siteMaps.poll();
+
+            if (!readSiteMaps.add(link)) {
+                continue;
+            }
+
+            try {
+                if (connectionDelay(false)) {
+                    break;
+                }
+
+                HttpPage.read(link2uri(link), headers, stream -> {
+                    SiteMapParser.parse(
+                            stream,
+                            (loc, lastmod) -> {
+                                if (addSiteMapLink(loc, lastmod, indexedTime)) {
+                                    linkCount[0]++;
+                                }
+                            },
+                            siteMaps::add
+                    );
+                    return null;
+                });
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception ignored) {}
+        }
+
+        if (linkCount[0] > 0) {
+            getLogger().info("Sitemap of " + getRootUri() + " links " + linkCount[0]
+                    + " unchanged " + unchangedPaths.size());
+        }
+    }
+
+    /**
+     * Adds sitemap link to the link queue.
+     *
+     * @param link Page link.
+     * @param lastModified Page last modification time or null.
+     * @param indexedTime Previous indexing time or null if pages must be downloaded.
+     *
+     * @return true - link successfully added to queue.
+     */
+    private boolean addSiteMapLink(String link, Date lastModified, Date indexedTime) {
+        try {
+            URI uri = link2uri(link);
+
+            if (!addLink(uri)) {
+                return false;
+            }
+
+            if (indexedTime != null && lastModified != null && lastModified.before(indexedTime)) {
+                unchangedPaths.add(uri2path(uri));
+            }
+
+            return true;
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+}
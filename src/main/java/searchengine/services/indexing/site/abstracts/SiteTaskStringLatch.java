@@ -5,7 +5,7 @@ import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
 /**
- * {@link searchengine.services.indexing.site.SiteTask} equal paths and lemmas concurrent synchronizer.
+ * {@link searchengine.services.indexing.site.SiteTask} equal paths concurrent synchronizer.
  */
 public abstract class SiteTaskStringLatch extends SiteTaskLogger {
     private final Map<String, CountDownLatch> stringLatches = new HashMap<>();
@@ -6,14 +6,16 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import searchengine.config.ApplicationSettings;
+import searchengine.dao.IndexRank;
 import searchengine.dao.IndexRepository;
 import searchengine.dao.LemmaRepository;
+import searchengine.dao.PageId;
 import searchengine.dao.PageRepository;
+import searchengine.dao.PageText;
 import searchengine.dao.SiteRepository;
-import searchengine.dto.indexing.LemmaAttributes;
-import searchengine.dto.indexing.LemmaOffset;
 import searchengine.dto.search.SearchDataItem;
 import searchengine.dto.search.SearchResponse;
 import searchengine.dto.search.SearchResponseError;
@@ -21,10 +23,14 @@ import searchengine.dto.search.SearchResponseOk;
 import searchengine.model.*;
 import searchengine.services.indexing.index.IndexTask;
 import searchengine.services.indexing.site.SiteTask;
+import searchengine.services.search.postings.PostingIndexService;
+import searchengine.services.search.postings.PostingList;
+import searchengine.services.search.postings.SiteIndex;
 
 import java.net.URISyntaxException;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Search query process service class.
@@ -39,8 +45,10 @@ public class SearchService {
     private final LemmaRepository lemmaRepository;
     private final IndexRepository indexRepository;
 
+    private final PostingIndexService postingIndexService;
+
     /**
-     * Searches most relevant to the query provided pages in database.
+     * Searches most relevant to the query provided pages in in-memory indexes and database.
      *
      * @param query Query to search.
      * @param siteUrl Site link to search in or null to search in all available sites.
@@ -50,6 +58,7 @@ public class SearchService {
      * @return {@link searchengine.dto.search.SearchResponseOk} object in the case of success
      * <br>or {@link searchengine.dto.search.SearchResponseError} object on error.
      */
+    @Transactional(readOnly = true)
     public SearchResponse search(String query, String siteUrl, int offset, int limit) {
         if (query.isBlank()) {
             return new SearchResponseError(SearchResponse.ERROR_NO_QUERY);
@@ -76,62 +85,140 @@ public class SearchService {
             return new SearchResponseError(SearchResponse.ERROR_SITE_NOT_INDEXED);
         }
 
-        List<Lemma> dbLemmas = searchLemmas(query, sites);
-        Map<Integer, Float> pageRanks = calculatePageRanks(dbLemmas);
+        // Search query lemmas in in-memory indexes of the sites, then in database
+
+        Set<String> queryLemmas = IndexTask.getTextLemmaCounts(query).getLemmas();
+        List<Site> dbSites = new ArrayList<>();
+
+        Map<Lemma, PostingList> indexLemmas = searchIndexLemmas(queryLemmas, sites, dbSites);
+        List<Lemma> lemmas = new ArrayList<>(indexLemmas.keySet());
+        lemmas.addAll(searchLemmas(queryLemmas, dbSites));
 
-        return fillResponse(pageRanks, dbLemmas, offset, limit);
+        Map<Integer, Float> pageRanks = calculatePageRanks(lemmas, indexLemmas);
+
+        return fillResponse(pageRanks, lemmas, offset, limit);
     }
 
     /**
-     * Searches lemmas in database optionally filtered by site.
+     * Searches lemmas in in-memory indexes of the sites.
      *
-     * @param query Text to split to lemmas.
+     * @param queryLemmas Lemmas of search query.
      * @param sites Sites list to search in.
+     * @param dbSites List to add sites with no in-memory index to.
      *
-     * @return List of lemmas found.
+     * @return Map of lemmas found to their postings.
+     * Lemma objects of the map are not database records and have no id.
      */
-    private List<Lemma> searchLemmas(String query, List<Site> sites) {
-        Map<String, LemmaAttributes> queryLemmas = IndexTask.getTextLemmas(query);
-        List<Lemma> dbLemmas = new ArrayList<>();
+    private Map<Lemma, PostingList> searchIndexLemmas(Set<String> queryLemmas, List<Site> sites, List<Site> dbSites) {
+        Map<Lemma, PostingList> indexLemmas = new IdentityHashMap<>();
+
+        for (Site site : sites) {
+            SiteIndex siteIndex = postingIndexService.getSiteIndex(site.getId());
+
+            if (siteIndex == null) {
+                dbSites.add(site);
+                continue;
+            }
+
+            for (String queryLemma : queryLemmas) {
+                PostingList postings = siteIndex.getPostings(queryLemma);
 
-        for (String queryLemma : queryLemmas.keySet()) {
-            for (Site site : sites) {
-                lemmaRepository.findBySiteIdAndLemma(site.getId(), queryLemma).ifPresent(dbLemmas::add);
+                if (postings != null) {
+                    Lemma lemma = new Lemma();
+                    lemma.setSiteId(site.getId());
+                    lemma.setLemma(queryLemma);
+                    lemma.setFrequency(postings.size());
+
+                    indexLemmas.put(lemma, postings);
+                }
             }
         }
 
-        return dbLemmas;
+        return indexLemmas;
     }
 
     /**
-     * Creates rank to page map according to database index information.
+     * Searches lemmas in database optionally filtered by site.
+     * <br>
+     * All the query lemmas of all the sites are loaded by one database request.
      *
-     * @param dbLemmas List of search query lemmas, found in the database.
+     * @param queryLemmas Lemmas of search query.
+     * @param sites Sites list to search in.
+     *
+     * @return List of lemmas found.
+     */
+    private List<Lemma> searchLemmas(Set<String> queryLemmas, List<Site> sites) {
+        if (queryLemmas.isEmpty() || sites.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return lemmaRepository.findAllBySiteIdInAndLemmaIn(
+                sites.stream().map(Site::getId).collect(Collectors.toList()),
+                queryLemmas
+        );
+    }
+
+    /**
+     * Creates rank to page map according to in-memory and database index information.
+     * <br>
+     * Page ranks of all the database lemmas are streamed by one database request.
+     *
+     * @param lemmas List of search query lemmas found.
+     * @param indexLemmas Lemmas of the list found in in-memory indexes, mapped to their postings.
      *
      * @return Rank to page map.
      */
-    private Map<Integer, Float> calculatePageRanks(List<Lemma> dbLemmas) {
+    private Map<Integer, Float> calculatePageRanks(List<Lemma> lemmas, Map<Lemma, PostingList> indexLemmas) {
         Map<Integer, Float> pageRanks = new HashMap<>();
 
-        for (Lemma lemma : dbLemmas) {
-            indexRepository.findAllByLemmaId(lemma.getId()).forEach(
-                    index -> {
-                        if (index.getPageId() != null) {
-                            pageRanks.merge(
-                                    index.getPageId(),
-                                    (float) Math.log10(Math.min(index.getRank(), 10f)) + dbLemmas.size(),
-                                    Float::sum
-                            );
-                        }
-                    }
-            );
+        indexLemmas.values().forEach(postings -> postings.forEach(
+                (pageId, rank) -> addPageRank(pageRanks, pageId, rank, lemmas.size())
+        ));
+
+        List<Integer> dbLemmaIds = lemmas.stream()
+                .filter(lemma -> !indexLemmas.containsKey(lemma))
+                .map(Lemma::getId)
+                .collect(Collectors.toList());
+
+        if (dbLemmaIds.isEmpty()) {
+            return pageRanks;
+        }
+
+        try (Stream<IndexRank> indexRanks = indexRepository.streamAllByLemmaIdIn(dbLemmaIds)) {
+            indexRanks.forEach(index -> {
+                if (index.getPageId() != null) {
+                    addPageRank(pageRanks, index.getPageId(), index.getRank(), lemmas.size());
+                }
+            });
         }
 
         return pageRanks;
     }
 
+    /**
+     * Adds rank of a lemma on a page to the page rank.
+     *
+     * @param pageRanks Rank to page map.
+     * @param pageId Page id.
+     * @param rank Rank of the lemma on the page.
+     * @param lemmaCount Number of search query lemmas found.
+     */
+    private void addPageRank(Map<Integer, Float> pageRanks, int pageId, float rank, int lemmaCount) {
+        pageRanks.merge(
+                pageId,
+                (float) Math.log10(Math.min(rank, 10f)) + lemmaCount,
+                Float::sum
+        );
+    }
+
     /**
      * Creates search response.
+     * <br>
+     * Selects pages of the highest ranks up to offset and limit of the response
+     * and loads the selected pages only.
+     * <br>
+     * Pages deleted since the ranks were read are skipped and do not count in the offset.
+     * If there are such pages, pages of lower ranks are selected in their place.
      *
      * @param pageRanks Rank to page map used to sort pages according to query relevance.
      * @param dbLemmas List of search query lemmas, found in the database.
@@ -143,154 +230,121 @@ public class SearchService {
     private SearchResponseOk fillResponse(Map<Integer, Float> pageRanks, List<Lemma> dbLemmas, int offset, int limit) {
         SearchResponseOk responseOk = new SearchResponseOk();
 
-        Float maxPageRank = pageRanks.values().stream().reduce(0f, Math::max);
+        offset = Math.max(offset, 0);
+        limit = Math.max(limit, 0);
 
-        for (Map.Entry<Integer, Float> entry : pageRanks.entrySet().stream().sorted(
-                Collections.reverseOrder(
-                        Map.Entry.comparingByValue()
-                )
-        ).collect(Collectors.toList())) {
-            Optional<Page> optional = pageRepository.findById(entry.getKey());
-
-            if (optional.isEmpty() || offset-- > 0) {
-                continue;
-            }
-            if (limit-- <= 0) {
-                break;
-            }
+        if (limit == 0 || pageRanks.size() <= offset) {
+            return responseOk;
+        }
 
-            Page page = optional.get();
-            siteRepository.findById(page.getSiteId()).ifPresent(pageSite -> {
-                Document document = Jsoup.parse(
-                        page.getContent(),
-                        pageSite.getUrl() + page.getPath()
-                );
+        float maxPageRank = 0f;
 
-                responseOk.add(new SearchDataItem(
-                        pageSite.getUrl(),
-                        pageSite.getName(),
-                        page.getPath(),
-                        document.title(),
-                        getSnippet(document.text(), dbLemmas),
-                        entry.getValue() / maxPageRank
-                ));
-            });
+        for (Float rank : pageRanks.values()) {
+            maxPageRank = Math.max(maxPageRank, rank);
         }
 
-        return responseOk;
-    }
+        // Select existing pages of the highest ranks, more candidates are taken while some pages are deleted
 
-    /**
-     * Makes snippet from the text.
-     *
-     * @param text Source text.
-     * @param lemmas List of lemmas to find in the text.
-     *
-     * @return Snippet - formatted and limited by length text.
-     */
-    private String getSnippet(String text, List<Lemma> lemmas) {
-        Set<String> sentences = new TreeSet<>(Comparator.comparingInt(String::length).reversed());
-
-        sentences.addAll(
-                Arrays.asList(text
-                        .replaceAll("[!?.]\\h+", "\n")
-                        .split("\\v+")
-                )
-        );
+        TopPageRanks topPageRanks;
+        List<Integer> rankIndexes = new ArrayList<>();      // Positions of response pages in the selection
+        int candidates = (int) Math.min((long) offset + limit, pageRanks.size());
 
-        for (String sentence : sentences) {
-            Map<String, LemmaAttributes> sentenceLemmas = IndexTask.getTextLemmas(sentence);
-            SortedMap<Integer, LemmaOffset> sentenceLemmaOffsets = new TreeMap<>(Comparator.reverseOrder());
+        while (true) {
+            topPageRanks = new TopPageRanks(candidates);
 
-            // Search for lemmas in the sentence
+            for (Map.Entry<Integer, Float> entry : pageRanks.entrySet()) {
+                topPageRanks.offer(entry.getKey(), entry.getValue());
+            }
 
-            boolean found = false;
+            topPageRanks.sort();
 
-            for (Lemma lemma : lemmas) {
-                LemmaAttributes attributes = sentenceLemmas.get(lemma.getLemma());
+            List<Integer> candidateIds = new ArrayList<>();
 
-                if (attributes == null) {           // The lemma not found in the sentence
-                    continue;
-                }
+            for (int i = 0; i < topPageRanks.size(); i++) {
+                candidateIds.add(topPageRanks.getPageId(i));
+            }
 
-                for (LemmaOffset offset : attributes.getOffsetList()) {
-                    sentenceLemmaOffsets.put(offset.getStart(), offset);
-                    found = true;
+            Set<Integer> existingIds = pageRepository.findIdsByIdIn(candidateIds).stream()
+                    .map(PageId::getId)
+                    .collect(Collectors.toSet());
+
+            rankIndexes.clear();
+
+            for (int i = 0, skip = offset; i < topPageRanks.size() && rankIndexes.size() < limit; i++) {
+                if (existingIds.contains(topPageRanks.getPageId(i)) && skip-- <= 0) {
+                    rankIndexes.add(i);
                 }
             }
 
-            if (!found) {                           // No lemma found in the sentence
-                continue;                           // Proceed next sentence
+            if (rankIndexes.size() == limit || candidates == pageRanks.size()) {
+                break;
             }
 
-            return formatSnippet(sentence, sentenceLemmaOffsets.values());
+            candidates = (int) Math.min(2L * candidates, pageRanks.size());
         }
 
-        // No lemma found anywhere
+        if (rankIndexes.isEmpty()) {
+            return responseOk;
+        }
 
-        return text.substring(0, applicationSettings.getSnippetSize());
-    }
+        // Load response pages and their sites
 
-    /**
-     * Formats text to make snippet.
-     *
-     * @param text Text to be formatted.
-     * @param offsetList Lemmas offset list. Must be sorted in reverse order by start index.
-     *
-     * @return Snippet - formatted and limited by length text.
-     */
-    private String formatSnippet(String text, Collection<LemmaOffset> offsetList) {
-        int lengthLimit = applicationSettings.getSnippetSize();
+        List<Integer> pageIds = new ArrayList<>();
 
-        // First lemma start index
-        int minStart = offsetList.stream()
-                .map(LemmaOffset::getStart)
-                .reduce(text.length(), Math::min);
+        for (int i : rankIndexes) {
+            pageIds.add(topPageRanks.getPageId(i));
+        }
 
-        // Last lemma end index + 1
-        int maxEnd = offsetList.stream()
-                .map(LemmaOffset::getEnd)
-                .reduce(-1, Math::max);
+        Map<Integer, PageText> pages = new HashMap<>();
+        pageRepository.findAllByIdIn(pageIds).forEach(page -> pages.put(page.getId(), page));
 
-        // Number of chars, cut off the beginning of the text
-        int shift = 0;
+        Map<Integer, Site> sites = new HashMap<>();
+        siteRepository.findAllById(
+                pages.values().stream().map(PageText::getSiteId).collect(Collectors.toSet())
+        ).forEach(site -> sites.put(site.getId(), site));
 
-        if (minStart >= maxEnd) {                       // No lemma in the text
-            return text.substring(0, lengthLimit);
-        }
+        // Fill response in order of rank
 
-        // Length limit
+        SnippetBuilder snippetBuilder = new SnippetBuilder(applicationSettings.getSnippetSize());
+        List<String> lemmaStrings = dbLemmas.stream().map(Lemma::getLemma).collect(Collectors.toList());
 
-        while (text.length() > lengthLimit && text.matches(".*\\S\\s+\\S.*")) {
-            if (shift < minStart && minStart - shift > text.length() + shift - maxEnd) {
-                String string = text.replaceAll("^\\s*\\S+\\s+", "");
+        for (int i : rankIndexes) {
+            PageText page = pages.get(topPageRanks.getPageId(i));
+            Site pageSite = page == null ? null : sites.get(page.getSiteId());
 
-                if (shift + text.length() - string.length() <= minStart) {
-                    shift += text.length() - string.length();
-                    text = string;
-                } else {
-                    text = text.substring(minStart - shift);
-                    shift = minStart;
-                }
-            } else {
-                text = text.replaceAll("\\s+\\S+\\s*$", "");
+            if (pageSite == null) {
+                continue;
             }
-        }
 
-        // Format text
-
-        for (LemmaOffset offset : offsetList) {
-            if (offset.getEnd() - shift <= text.length() && offset.getStart() >= shift) {
-                text = new StringBuilder()
-                        .append(text, 0, offset.getStart() - shift)
-                        .append("<b>")
-                        .append(text, offset.getStart() - shift, offset.getEnd() - shift)
-                        .append("</b>")
-                        .append(text.substring(offset.getEnd() - shift))
-                        .toString();
+            String title = page.getTitle();
+            String text = page.getText();
+
+            if (text == null) {                     // Page indexed with no plain text saved
+                Optional<Page> contentPage = pageRepository.findById(page.getId());
+
+                if (contentPage.isEmpty()) {
+                    continue;
+                }
+
+                Document document = Jsoup.parse(
+                        contentPage.get().getContent(),
+                        pageSite.getUrl() + page.getPath()
+                );
+
+                title = document.title();
+                text = document.text();
             }
+
+            responseOk.add(new SearchDataItem(
+                    pageSite.getUrl(),
+                    pageSite.getName(),
+                    page.getPath(),
+                    title,
+                    snippetBuilder.build(text, lemmaStrings),
+                    topPageRanks.getRank(i) / maxPageRank
+            ));
         }
 
-        return text;
+        return responseOk;
     }
 }
@@ -0,0 +1,233 @@
+package searchengine.services.search;
+
+import searchengine.dto.indexing.LemmaAttributes;
+import searchengine.dto.indexing.LemmaOffset;
+import searchengine.services.indexing.index.IndexTask;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Search response snippet maker.
+ * <br>
+ * The text is analyzed once, the snippet is the longest sentence containing any of the lemmas.
+ * Sentences of the same length are represented by the first of them.
+ */
+public class SnippetBuilder {
+    private final int snippetSize;
+
+    /**
+     * Constructor of snippet maker.
+     *
+     * @param snippetSize Snippet length limit.
+     */
+    public SnippetBuilder(int snippetSize) {
+        this.snippetSize = snippetSize;
+    }
+
+    /**
+     * Makes snippet from the text.
+     *
+     * @param text Source text.
+     * @param lemmas Lemmas to find in the text.
+     *
+     * @return Snippet - formatted and limited by length text.
+     */
+    public String build(String text, Collection<String> lemmas) {
+        // Sentence separators are replaced by vertical spaces, so no lemma crosses sentence bounds
+        String sentenceText = text.replaceAll("[!?.]\\h+", "\n");
+        Map<String, LemmaAttributes> textLemmas = IndexTask.getTextLemmas(sentenceText);
+
+        // Start indexes of the lemma occurrences in the text
+
+        SortedMap<Integer, LemmaOffset> lemmaOffsets = new TreeMap<>();
+
+        for (String lemma : lemmas) {
+            LemmaAttributes attributes = textLemmas.get(lemma);
+
+            if (attributes == null) {               // The lemma not found in the text
+                continue;
+            }
+
+            for (LemmaOffset offset : attributes.getOffsetList()) {
+                lemmaOffsets.put(offset.getStart(), offset);
+            }
+        }
+
+        // Search for the longest sentence with lemmas
+
+        Set<Integer> lengths = new HashSet<>();
+        int bestStart = -1;
+        int bestEnd = -1;
+        int start = 0;
+
+        while (start <= sentenceText.length()) {
+            int end = start;
+
+            while (end < sentenceText.length() && !isSentenceBreak(sentenceText.charAt(end))) {
+                end++;
+            }
+
+            if (end == sentenceText.length() && start == end && start > 0) {
+                break;                              // No trailing empty sentence
+            }
+
+            if (lengths.add(end - start)
+                    && end - start > bestEnd - bestStart
+                    && !lemmaOffsets.subMap(start, end).isEmpty()
+            ) {
+                bestStart = start;
+                bestEnd = end;
+            }
+
+            // Skip sentence separators
+
+            start = end;
+
+            if (start == sentenceText.length()) {
+                break;
+            }
+
+            while (start < sentenceText.length() && isSentenceBreak(sentenceText.charAt(start))) {
+                start++;
+            }
+        }
+
+        if (bestStart < 0) {                        // No lemma found anywhere
+            return text.substring(0, Math.min(text.length(), snippetSize));
+        }
+
+        // Offsets of the sentence sorted in reverse order
+
+        SortedMap<Integer, LemmaOffset> sentenceOffsets = new TreeMap<>(Comparator.reverseOrder());
+
+        for (LemmaOffset offset : lemmaOffsets.subMap(bestStart, bestEnd).values()) {
+            sentenceOffsets.put(offset.getStart() - bestStart, new LemmaOffset(
+                    offset.getStart() - bestStart,
+                    offset.getEnd() - bestStart
+            ));
+        }
+
+        return format(sentenceText.substring(bestStart, bestEnd), sentenceOffsets.values());
+    }
+
+    /**
+     * Formats text to make snippet.
+     * <br>
+     * Words are cut off the end of the text or off its beginning, whichever is farther from the lemmas,
+     * until the text fits the length limit or one word is left.
+     * The beginning is never cut beyond the first lemma.
+     *
+     * @param text Text to be formatted.
+     * @param offsetList Lemmas offset list. Must be sorted in reverse order by start index.
+     *
+     * @return Snippet - formatted and limited by length text.
+     */
+    public String format(String text, Collection<LemmaOffset> offsetList) {
+        int lengthLimit = snippetSize;
+
+        // First lemma start index and last lemma end index + 1
+
+        int minStart = text.length();
+        int maxEnd = -1;
+
+        for (LemmaOffset offset : offsetList) {
+            minStart = Math.min(minStart, offset.getStart());
+            maxEnd = Math.max(maxEnd, offset.getEnd());
+        }
+
+        if (minStart >= maxEnd) {                       // No lemma in the text
+            return text.substring(0, Math.min(text.length(), lengthLimit));
+        }
+
+        // Word bounds
+
+        int[] wordStarts = new int[text.length() / 2 + 1];
+        int[] wordEnds = new int[wordStarts.length];
+        int wordCount = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            if (isSpace(text.charAt(i))) {
+                continue;
+            }
+
+            wordStarts[wordCount] = i;
+
+            while (i < text.length() && !isSpace(text.charAt(i))) {
+                i++;
+            }
+
+            wordEnds[wordCount++] = i;
+        }
+
+        // Length limit
+
+        int shift = 0;                                  // Number of chars, cut off the beginning of the text
+        int end = text.length();                        // Number of chars, left of the text
+        int firstWord = 0;
+        int lastWord = wordCount - 1;
+
+        while (end - shift > lengthLimit && firstWord < lastWord) {
+            if (shift < minStart && minStart - shift > end - maxEnd) {
+                if (wordStarts[firstWord + 1] <= minStart) {
+                    shift = wordStarts[++firstWord];
+                } else {
+                    shift = minStart;
+
+                    while (wordEnds[firstWord] <= shift) {
+                        firstWord++;
+                    }
+                }
+            } else {
+                end = wordEnds[--lastWord];
+            }
+        }
+
+        // Format text
+
+        StringBuilder snippet = new StringBuilder(end - shift + offsetList.size() * 7);
+        LemmaOffset[] offsets = offsetList.toArray(new LemmaOffset[0]);
+        int position = shift;
+
+        for (int i = offsets.length - 1; i >= 0; i--) {
+            LemmaOffset offset = offsets[i];
+
+            if (offset.getEnd() <= end && offset.getStart() >= position) {
+                snippet.append(text, position, offset.getStart())
+                        .append("<b>")
+                        .append(text, offset.getStart(), offset.getEnd())
+                        .append("</b>");
+                position = offset.getEnd();
+            }
+        }
+
+        return snippet.append(text, position, end).toString();
+    }
+
+    /**
+     * Whether the char separates sentences - vertical space.
+     *
+     * @param c Char to check.
+     *
+     * @return true - the char is a sentence separator.
+     */
+    private static boolean isSentenceBreak(char c) {
+        return c == '\n' || c == 0x0B || c == '\f' || c == '\r' || c == 0x85 || c == 0x2028 || c == 0x2029;
+    }
+
+    /**
+     * Whether the char separates words - ASCII white space.
+     *
+     * @param c Char to check.
+     *
+     * @return true - the char is a word separator.
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,154 @@
+package searchengine.services.search;
+
+/**
+ * Bounded selection of pages of the highest ranks.
+ * <br>
+ * Keeps no more than capacity pages in a min-heap of primitive arrays,
+ * a page is accepted only if its rank is higher than the lowest rank kept.
+ */
+public class TopPageRanks {
+    private final int[] pageIds;
+    private final float[] ranks;
+    private int size = 0;
+
+    /**
+     * Constructor of empty selection.
+     *
+     * @param capacity Maximum number of pages to keep.
+     */
+    public TopPageRanks(int capacity) {
+        pageIds = new int[Math.max(capacity, 0)];
+        ranks = new float[pageIds.length];
+    }
+
+    /**
+     * Returns number of pages kept.
+     *
+     * @return Number of pages.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Offers a page to the selection.
+     *
+     * @param pageId Page id.
+     * @param rank Page rank.
+     *
+     * @return true - the page is kept.
+     */
+    public boolean offer(int pageId, float rank) {
+        if (size < pageIds.length) {
+            pageIds[size] = pageId;
+            ranks[size] = rank;
+            siftUp(size++);
+            return true;
+        }
+
+        if (size == 0 || rank <= ranks[0]) {
+            return false;
+        }
+
+        pageIds[0] = pageId;
+        ranks[0] = rank;
+        siftDown(0, size);
+        return true;
+    }
+
+    /**
+     * Sorts the pages kept in descending order of rank.
+     * <br>
+     * The selection must not be offered new pages after the sorting.
+     *
+     * @return This object.
+     */
+    public TopPageRanks sort() {
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        return this;
+    }
+
+    /**
+     * Returns page id of a position.
+     *
+     * @param index Position of the page, 0 is the highest rank after {@link #sort()}.
+     *
+     * @return Page id.
+     */
+    public int getPageId(int index) {
+        return pageIds[index];
+    }
+
+    /**
+     * Returns page rank of a position.
+     *
+     * @param index Position of the page, 0 is the highest rank after {@link #sort()}.
+     *
+     * @return Page rank.
+     */
+    public float getRank(int index) {
+        return ranks[index];
+    }
+
+    /**
+     * Moves heap item up to its place.
+     *
+     * @param index Item position.
+     */
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+
+            if (ranks[parent] <= ranks[index]) {
+                break;
+            }
+
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    /**
+     * Moves heap item down to its place.
+     *
+     * @param index Item position.
+     * @param end Heap size.
+     */
+    private void siftDown(int index, int end) {
+        while (true) {
+            int child = index * 2 + 1;
+
+            if (child >= end) {
+                break;
+            }
+            if (child + 1 < end && ranks[child + 1] < ranks[child]) {
+                child++;
+            }
+            if (ranks[index] <= ranks[child]) {
+                break;
+            }
+
+            swap(index, child);
+            index = child;
+        }
+    }
+
+    /**
+     * Swaps two heap items.
+     *
+     * @param i First item position.
+     * @param j Second item position.
+     */
+    private void swap(int i, int j) {
+        int pageId = pageIds[i];
+        pageIds[i] = pageIds[j];
+        pageIds[j] = pageId;
+
+        float rank = ranks[i];
+        ranks[i] = ranks[j];
+        ranks[j] = rank;
+    }
+}
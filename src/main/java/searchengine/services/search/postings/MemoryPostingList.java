@@ -0,0 +1,43 @@
+package searchengine.services.search.postings;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Posting list of an encoded byte array.
+ * <br>
+ * See {@link PostingCodec}.
+ */
+public class MemoryPostingList implements PostingList {
+    private final byte[] data;
+    private final int size;
+
+    /**
+     * Constructor encodes postings.
+     *
+     * @param postings Packed postings sorted in ascending order.
+     * @param size Number of postings.
+     */
+    public MemoryPostingList(long[] postings, int size) {
+        this.data = PostingCodec.encode(postings, size);
+        this.size = size;
+    }
+
+    /**
+     * Returns encoded postings.
+     *
+     * @return Encoded posting list.
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(PostingConsumer consumer) {
+        PostingCodec.decode(ByteBuffer.wrap(data), size, consumer);
+    }
+}
@@ -0,0 +1,116 @@
+package searchengine.services.search.postings;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Inverted index of a site kept in memory.
+ */
+public class MemorySiteIndex implements SiteIndex {
+    private final Map<String, MemoryPostingList> postings;
+
+    /**
+     * Constructor of the index built.
+     *
+     * @param postings Lemma to posting list map.
+     */
+    private MemorySiteIndex(Map<String, MemoryPostingList> postings) {
+        this.postings = postings;
+    }
+
+    @Override
+    public PostingList getPostings(String lemma) {
+        return postings.get(lemma);
+    }
+
+    @Override
+    public int getLemmaCount() {
+        return postings.size();
+    }
+
+    /**
+     * Creates a copy of the index with posting lists of some lemmas replaced.
+     * <br>
+     * Posting lists of other lemmas are shared with this index.
+     *
+     * @param lists Lemma to new posting list map, null list removes the lemma.
+     *
+     * @return Site index.
+     */
+    MemorySiteIndex replace(Map<String, MemoryPostingList> lists) {
+        Map<String, MemoryPostingList> postings = new HashMap<>(this.postings);
+
+        lists.forEach((lemma, list) -> {
+            if (list != null) {
+                postings.put(lemma, list);
+            } else {
+                postings.remove(lemma);
+            }
+        });
+
+        return new MemorySiteIndex(postings);
+    }
+
+    /**
+     * Passes every lemma of the index with its postings to the consumer.
+     *
+     * @param consumer Lemma and posting list receiver.
+     */
+    void forEach(BiConsumer<String, MemoryPostingList> consumer) {
+        postings.forEach(consumer);
+    }
+
+    /**
+     * Concurrent collector of postings in any order.
+     */
+    public static class Builder {
+        private final Map<String, Postings> lemmas = new ConcurrentHashMap<>();
+
+        /**
+         * Adds posting of a lemma.
+         *
+         * @param lemma Lemma.
+         * @param pageId Page id.
+         * @param rank Rank of the lemma on the page.
+         */
+        public void add(String lemma, int pageId, float rank) {
+            lemmas.computeIfAbsent(lemma, k -> new Postings()).add(PostingCodec.pack(pageId, rank));
+        }
+
+        /**
+         * Encodes all the postings added.
+         *
+         * @return Site index.
+         */
+        public MemorySiteIndex build() {
+            Map<String, MemoryPostingList> postings = new HashMap<>();
+
+            lemmas.forEach((lemma, list) -> postings.put(lemma, list.build()));
+
+            return new MemorySiteIndex(postings);
+        }
+    }
+
+    /**
+     * Growing array of packed postings of a lemma.
+     */
+    private static class Postings {
+        private long[] items = new long[4];
+        private int size = 0;
+
+        synchronized void add(long posting) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = posting;
+        }
+
+        synchronized MemoryPostingList build() {
+            Arrays.sort(items, 0, size);
+            return new MemoryPostingList(items, size);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package searchengine.services.search.postings;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Posting list binary format encoder and decoder.
+ * <br>
+ * Every posting is a pair of variable length integers:
+ * page id difference to the previous posting of the list and rank of the lemma on the page.
+ * <br>
+ * Ranks are numbers of lemma occurrences on a page and are stored as integers.
+ */
+public final class PostingCodec {
+    private PostingCodec() {}
+
+    /**
+     * Packs page id and rank into one value.
+     * <br>
+     * Packed values are ordered by page id.
+     *
+     * @param pageId Page id, not negative.
+     * @param rank Rank of the lemma on the page.
+     *
+     * @return Packed posting.
+     */
+    public static long pack(int pageId, float rank) {
+        return ((long) pageId << 32) | (Math.round(rank) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Encodes postings.
+     *
+     * @param postings Packed postings sorted in ascending order. See {@link #pack(int, float)}.
+     * @param size Number of postings to encode.
+     *
+     * @return Encoded posting list.
+     */
+    public static byte[] encode(long[] postings, int size) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream(size * 3);
+        int prevPageId = 0;
+
+        for (int i = 0; i < size; i++) {
+            int pageId = (int) (postings[i] >>> 32);
+
+            writeVarInt(stream, pageId - prevPageId);
+            writeVarInt(stream, (int) postings[i]);
+
+            prevPageId = pageId;
+        }
+
+        return stream.toByteArray();
+    }
+
+    /**
+     * Encodes one posting of a list.
+     *
+     * @param stream Stream to write to.
+     * @param pageIdDifference Page id difference to the previous posting of the list.
+     * @param rank Rank of the lemma on the page.
+     */
+    public static void writePosting(ByteArrayOutputStream stream, int pageIdDifference, float rank) {
+        writeVarInt(stream, pageIdDifference);
+        writeVarInt(stream, (int) pack(0, rank));
+    }
+
+    /**
+     * Decodes postings.
+     * <br>
+     * The buffer position is moved to the end of the list.
+     *
+     * @param buffer Buffer positioned at the beginning of a list.
+     * @param size Number of postings in the list.
+     * @param consumer Posting receiver.
+     */
+    public static void decode(ByteBuffer buffer, int size, PostingConsumer consumer) {
+        int pageId = 0;
+
+        for (int i = 0; i < size; i++) {
+            pageId += readVarInt(buffer);
+            consumer.accept(pageId, readVarInt(buffer));
+        }
+    }
+
+    /**
+     * Writes not negative integer by 7 bits per byte, lower bits first.
+     *
+     * @param stream Stream to write to.
+     * @param value Value to write.
+     */
+    public static void writeVarInt(ByteArrayOutputStream stream, int value) {
+        while ((value & ~0x7F) != 0) {
+            stream.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        stream.write(value);
+    }
+
+    /**
+     * Reads integer written by {@link #writeVarInt(ByteArrayOutputStream, int)}.
+     *
+     * @param buffer Buffer to read from.
+     *
+     * @return Value read.
+     */
+    public static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package searchengine.services.search.postings;
+
+/**
+ * Receiver of postings of a {@link PostingList}.
+ */
+@FunctionalInterface
+public interface PostingConsumer {
+    /**
+     * Accepts next posting of a list.
+     *
+     * @param pageId Page id.
+     * @param rank Rank of the lemma on the page.
+     */
+    void accept(int pageId, float rank);
+}
@@ -0,0 +1,420 @@
+package searchengine.services.search.postings;
+
+import lombok.RequiredArgsConstructor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.stereotype.Service;
+
+import searchengine.Application;
+import searchengine.config.ApplicationSettings;
+import searchengine.dao.SiteRepository;
+import searchengine.model.Index;
+import searchengine.model.IndexingStatus;
+import searchengine.model.Site;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted indexes of indexed sites service.
+ * <br>
+ * Keeps indexes in memory and/or in memory mapped segment files according to application settings.
+ * Indexes are loaded at application start
+ * and replaced by {@link searchengine.services.indexing.site.SiteTask} at the end of site indexing.
+ * One page indexing replaces postings of the merged pages only.
+ * Database stays the source of the index data, sites with no index here are searched in database.
+ * <br>
+ * Segment files of segment only mode are written by streaming sorted index records from database,
+ * so no site postings are kept in memory.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostingIndexService {
+    private static final String SEGMENT_PREFIX = "site-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Logger logger = LoggerFactory.getLogger(Application.class);
+
+    private final ApplicationSettings applicationSettings;
+    private final SiteRepository siteRepository;
+
+    /**
+     * Site id to in-memory site index map.
+     */
+    private final Map<Integer, SiteIndex> memoryIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Site id to segment site index map.
+     */
+    private final Map<Integer, SegmentSiteIndex> segmentIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Whether any kind of index is enabled by application settings.
+     *
+     * @return true - the index is enabled.
+     */
+    public boolean isEnabled() {
+        return isMemoryEnabled() || isSegmentEnabled();
+    }
+
+    /**
+     * Whether in-memory index is enabled by application settings.
+     *
+     * @return true - the index is enabled.
+     */
+    public boolean isMemoryEnabled() {
+        return Boolean.TRUE.equals(applicationSettings.getMemoryIndex());
+    }
+
+    /**
+     * Whether segment file index is enabled by application settings.
+     *
+     * @return true - the index is enabled.
+     */
+    public boolean isSegmentEnabled() {
+        return applicationSettings.getSegmentPath() != null && !applicationSettings.getSegmentPath().isBlank();
+    }
+
+    /**
+     * Loads indexes of all indexed sites.
+     * <br>
+     * Existing segment files are opened, absent ones are written from database,
+     * segment files of not indexed sites are removed.
+     * <br>
+     * Called by {@link searchengine.services.indexing.IndexingService} at the application start
+     * after the database is migrated and cleaned, so the indexes are built from the final records.
+     */
+    public void loadIndexes() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Set<Integer> siteIds = siteRepository.findAllByStatus(IndexingStatus.INDEXED).stream()
+                .map(Site::getId)
+                .collect(Collectors.toSet());
+
+        if (isSegmentEnabled()) {
+            try {
+                Files.createDirectories(getSegmentDirectory());
+                removeStaleSegments(siteIds);
+            } catch (IOException e) {
+                logger.error("Segment directory " + getSegmentDirectory() + " is not available", e);
+            }
+        }
+
+        for (Integer siteId : siteIds) {
+            if (isSegmentEnabled() && !isMemoryEnabled() && Files.exists(getSegmentPath(siteId))) {
+                try {
+                    segmentIndexes.put(siteId, SegmentSiteIndex.open(getSegmentPath(siteId)));
+                    continue;
+                } catch (IOException e) {
+                    logger.warn(e.getMessage());
+                }
+            }
+
+            reload(siteId);
+        }
+    }
+
+    /**
+     * Returns index of a site.
+     * <br>
+     * In-memory index is preferred to segment one.
+     *
+     * @param siteId Site id.
+     *
+     * @return Site index or null if the site has no index.
+     */
+    public SiteIndex getSiteIndex(Integer siteId) {
+        if (siteId == null) {
+            return null;
+        }
+
+        SiteIndex siteIndex = isMemoryEnabled() ? memoryIndexes.get(siteId) : null;
+
+        if (siteIndex == null && isSegmentEnabled()) {
+            siteIndex = segmentIndexes.get(siteId);
+        }
+
+        return siteIndex;
+    }
+
+    /**
+     * Creates postings collector of an indexing site.
+     *
+     * @return Postings collector or null if in-memory index is disabled.
+     */
+    public MemorySiteIndex.Builder newBuilder() {
+        return isMemoryEnabled() ? new MemorySiteIndex.Builder() : null;
+    }
+
+    /**
+     * Sets index of a site.
+     * <br>
+     * Writes segment file of the site if segment index is enabled:
+     * of the postings collected or, with no collector, of database index records.
+     *
+     * @param siteId Site id.
+     * @param builder Collector of the site postings or null if in-memory index is disabled.
+     */
+    public void publish(Integer siteId, MemorySiteIndex.Builder builder) {
+        if (siteId == null || !isEnabled()) {
+            return;
+        }
+
+        MemorySiteIndex siteIndex = builder != null ? builder.build() : null;
+
+        if (siteIndex != null && isMemoryEnabled()) {
+            memoryIndexes.put(siteId, siteIndex);
+        }
+
+        if (isSegmentEnabled()) {
+            try {
+                Files.createDirectories(getSegmentDirectory());
+                segmentIndexes.put(siteId, siteIndex != null
+                        ? SegmentSiteIndex.write(getSegmentPath(siteId), siteIndex)
+                        : writeSegment(siteId)
+                );
+            } catch (IOException | UncheckedIOException e) {
+                logger.error("Site " + siteId + " segment is not written", e);
+            }
+        }
+
+        SiteIndex published = getSiteIndex(siteId);
+
+        if (published != null) {
+            logger.info("Site " + siteId + " index of " + published.getLemmaCount() + " lemmas is published");
+        }
+    }
+
+    /**
+     * Removes index of a site.
+     *
+     * @param siteId Site id.
+     */
+    public void remove(Integer siteId) {
+        if (siteId == null) {
+            return;
+        }
+
+        memoryIndexes.remove(siteId);
+
+        SegmentSiteIndex segment = segmentIndexes.remove(siteId);
+
+        if (segment != null) {
+            deleteSegment(segment.getPath());
+        }
+    }
+
+    /**
+     * Rebuilds index of a site from database.
+     * <br>
+     * Every index record of the site is read, and the segment file is rewritten.
+     * Changes of a few pages are applied by {@link #replacePages(Integer, Set, Set, MemorySiteIndex.Builder)}.
+     *
+     * @param siteId Site id.
+     */
+    public void reload(Integer siteId) {
+        if (siteId == null || !isEnabled()) {
+            return;
+        }
+
+        MemorySiteIndex.Builder builder = newBuilder();
+
+        if (builder != null) {
+            Index.forEachSiteRecord(siteId, row -> builder.add(
+                    row.getString(1),
+                    row.getInt(2),
+                    row.getFloat(3)
+            ));
+        }
+
+        publish(siteId, builder);
+    }
+
+    /**
+     * Replaces postings of some pages in index of a site.
+     * <br>
+     * Only posting lists of the lemmas given and of the new postings are rebuilt, no database is read.
+     * In-memory index shares other posting lists with its previous version.
+     * Segment file is rewritten by copying other posting lists as encoded - one sequential pass over the file.
+     * <br>
+     * Site with no index is reloaded from database.
+     *
+     * @param siteId Site id.
+     * @param pageIds Ids of the pages removed from the site or added to it.
+     * @param lemmas Lemmas of the removed pages.
+     * @param builder Collector of the added pages postings.
+     */
+    public void replacePages(Integer siteId, Set<Integer> pageIds, Set<String> lemmas, MemorySiteIndex.Builder builder) {
+        if (siteId == null || !isEnabled()) {
+            return;
+        }
+
+        if (getSiteIndex(siteId) == null) {
+            reload(siteId);
+            return;
+        }
+
+        MemorySiteIndex added = builder.build();
+        Set<String> changedLemmas = new HashSet<>(lemmas);
+
+        added.forEach((lemma, list) -> changedLemmas.add(lemma));
+
+        SiteIndex memoryIndex = memoryIndexes.get(siteId);
+
+        if (memoryIndex instanceof MemorySiteIndex) {
+            memoryIndexes.put(siteId, ((MemorySiteIndex) memoryIndex).replace(
+                    replaceLists(memoryIndex, pageIds, changedLemmas, added)
+            ));
+        }
+
+        SegmentSiteIndex segment = segmentIndexes.get(siteId);
+
+        if (segment != null) {
+            try {
+                segmentIndexes.put(siteId, segment.replace(replaceLists(segment, pageIds, changedLemmas, added)));
+            } catch (IOException e) {
+                logger.error("Site " + siteId + " segment is not updated", e);
+            }
+        }
+
+        logger.info("Site " + siteId + " index of " + changedLemmas.size() + " lemmas is updated");
+    }
+
+    /**
+     * Builds new posting lists of lemmas with postings of some pages replaced.
+     *
+     * @param siteIndex Site index to take current posting lists from.
+     * @param pageIds Ids of the pages to remove postings of.
+     * @param lemmas Lemmas to build posting lists of.
+     * @param added New postings of the pages.
+     *
+     * @return Lemma to posting list map, null list of a lemma with no postings left.
+     */
+    private Map<String, MemoryPostingList> replaceLists(
+            SiteIndex siteIndex,
+            Set<Integer> pageIds,
+            Set<String> lemmas,
+            MemorySiteIndex added
+    ) {
+        MemorySiteIndex.Builder builder = new MemorySiteIndex.Builder();
+
+        for (String lemma : lemmas) {
+            PostingList current = siteIndex.getPostings(lemma);
+            PostingList pages = added.getPostings(lemma);
+
+            if (current != null) {
+                current.forEach((pageId, rank) -> {
+                    if (!pageIds.contains(pageId)) {
+                        builder.add(lemma, pageId, rank);
+                    }
+                });
+            }
+
+            if (pages != null) {
+                pages.forEach((pageId, rank) -> builder.add(lemma, pageId, rank));
+            }
+        }
+
+        MemorySiteIndex replaced = builder.build();
+        Map<String, MemoryPostingList> lists = new HashMap<>();
+
+        lemmas.forEach(lemma -> lists.put(lemma, (MemoryPostingList) replaced.getPostings(lemma)));
+
+        return lists;
+    }
+
+    /**
+     * Writes segment file of a site by streaming its index records from database in sorted order.
+     *
+     * @param siteId Site id.
+     *
+     * @return Site index of the segment written.
+     *
+     * @throws IOException File write error.
+     */
+    private SegmentSiteIndex writeSegment(Integer siteId) throws IOException {
+        try (SegmentSiteIndex.Writer writer = new SegmentSiteIndex.Writer(getSegmentPath(siteId))) {
+            Index.forEachSiteRecord(siteId, true, row -> {
+                try {
+                    writer.add(row.getString(1), row.getInt(2), row.getFloat(3));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            return writer.finish();
+        }
+    }
+
+    /**
+     * Returns directory of segment files.
+     *
+     * @return Directory path.
+     */
+    private Path getSegmentDirectory() {
+        return Paths.get(applicationSettings.getSegmentPath());
+    }
+
+    /**
+     * Returns segment file path of a site.
+     *
+     * @param siteId Site id.
+     *
+     * @return File path.
+     */
+    private Path getSegmentPath(Integer siteId) {
+        return getSegmentDirectory().resolve(SEGMENT_PREFIX + siteId + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Removes segment files of the sites not in the list and unfinished segment files.
+     *
+     * @param siteIds Ids of sites to keep segment files of.
+     *
+     * @throws IOException Directory read error.
+     */
+    private void removeStaleSegments(Set<Integer> siteIds) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(getSegmentDirectory(), SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+
+                if (name.matches(SEGMENT_PREFIX + "\\d+" + SEGMENT_SUFFIX)
+                        && siteIds.contains(Integer.valueOf(name.replaceAll("\\D", "")))
+                ) {
+                    continue;
+                }
+
+                deleteSegment(file);
+            }
+        }
+    }
+
+    /**
+     * Removes segment file.
+     * <br>
+     * The file mapping stays valid for the searches still reading it.
+     *
+     * @param path Segment file path.
+     */
+    private void deleteSegment(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {                   // File is locked by its mapping on some systems
+            path.toFile().deleteOnExit();
+        }
+    }
+}
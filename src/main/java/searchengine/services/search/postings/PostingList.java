@@ -0,0 +1,20 @@
+package searchengine.services.search.postings;
+
+/**
+ * Postings of a lemma - pages the lemma is found on with the lemma ranks.
+ */
+public interface PostingList {
+    /**
+     * Returns number of pages in the list.
+     *
+     * @return Number of pages.
+     */
+    int size();
+
+    /**
+     * Passes every posting of the list to the consumer in ascending order of page id.
+     *
+     * @param consumer Posting receiver.
+     */
+    void forEach(PostingConsumer consumer);
+}
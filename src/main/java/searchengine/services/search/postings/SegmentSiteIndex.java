@@ -0,0 +1,582 @@
+package searchengine.services.search.postings;
+
+import lombok.Getter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable inverted index of a site stored in a memory mapped segment file.
+ * <br>
+ * File format:
+ * <br>
+ * header - magic number, number of lemmas, dictionary section offset, lemmas section offset (4 int values);
+ * <br>
+ * postings section - posting lists encoded by {@link PostingCodec};
+ * <br>
+ * dictionary section - for every lemma in ascending order of UTF-8 bytes: lemma offset within lemmas section,
+ * UTF-8 lemma length, posting list offset within the file, number of postings (4 int values);
+ * <br>
+ * lemmas section - UTF-8 bytes of the lemmas.
+ * <br>
+ * Lemmas are found by binary search in the mapped dictionary, nothing but the mapping is kept in memory.
+ */
+public class SegmentSiteIndex implements SiteIndex {
+    private static final int MAGIC = 0x53454732;            // "SEG2"
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 16;
+
+    @Getter
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int lemmaCount;
+    private final int dictionaryStart;
+    private final int lemmasStart;
+
+    /**
+     * Constructor of opened segment.
+     *
+     * @param path Segment file path.
+     * @param buffer Mapped file.
+     * @param lemmaCount Number of lemmas.
+     * @param dictionaryStart Dictionary section offset.
+     * @param lemmasStart Lemmas section offset.
+     */
+    private SegmentSiteIndex(Path path, ByteBuffer buffer, int lemmaCount, int dictionaryStart, int lemmasStart) {
+        this.path = path;
+        this.buffer = buffer;
+        this.lemmaCount = lemmaCount;
+        this.dictionaryStart = dictionaryStart;
+        this.lemmasStart = lemmasStart;
+    }
+
+    @Override
+    public PostingList getPostings(String lemma) {
+        byte[] bytes = lemma.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = lemmaCount - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = dictionaryStart + middle * ENTRY_SIZE;
+            int compare = compare(bytes, lemmasStart + buffer.getInt(entry), buffer.getInt(entry + 4));
+
+            if (compare > 0) {
+                low = middle + 1;
+            } else if (compare < 0) {
+                high = middle - 1;
+            } else {
+                return new SegmentPostingList(buffer, buffer.getInt(entry + 8), buffer.getInt(entry + 12));
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public int getLemmaCount() {
+        return lemmaCount;
+    }
+
+    /**
+     * Writes a copy of the segment with posting lists of some lemmas replaced and opens it.
+     * <br>
+     * The copy replaces the segment file, the mapping of this segment stays valid for the searches still reading it.
+     * Posting lists of other lemmas are copied as encoded, so the writing is one sequential pass over the file
+     * with no decoding.
+     *
+     * @param lists Lemma to new posting list map, null list removes the lemma.
+     *
+     * @return Site index of the segment written.
+     *
+     * @throws IOException File write error.
+     */
+    public SegmentSiteIndex replace(Map<String, MemoryPostingList> lists) throws IOException {
+        SortedMap<byte[], MemoryPostingList> changes = new TreeMap<>(Writer.LEMMA_ORDER);
+
+        lists.forEach((lemma, list) -> changes.put(lemma.getBytes(StandardCharsets.UTF_8), list));
+
+        Iterator<Map.Entry<byte[], MemoryPostingList>> iterator = changes.entrySet().iterator();
+        Map.Entry<byte[], MemoryPostingList> change = iterator.hasNext() ? iterator.next() : null;
+
+        try (Writer writer = new Writer(path)) {
+            for (int i = 0; i < lemmaCount; i++) {
+                int entry = dictionaryStart + i * ENTRY_SIZE;
+                int lemmaOffset = lemmasStart + buffer.getInt(entry);
+                int lemmaLength = buffer.getInt(entry + 4);
+
+                while (change != null && compare(change.getKey(), lemmaOffset, lemmaLength) < 0) {
+                    addChange(writer, change);                  // New lemma
+                    change = iterator.hasNext() ? iterator.next() : null;
+                }
+
+                if (change != null && compare(change.getKey(), lemmaOffset, lemmaLength) == 0) {
+                    addChange(writer, change);                  // Replaced or removed lemma
+                    change = iterator.hasNext() ? iterator.next() : null;
+                    continue;
+                }
+
+                // Lists are written in the order of lemmas, the last one ends at the dictionary
+
+                int listOffset = buffer.getInt(entry + 8);
+                int listEnd = i + 1 < lemmaCount ? buffer.getInt(entry + ENTRY_SIZE + 8) : dictionaryStart;
+                byte[] lemmaBytes = new byte[lemmaLength];
+
+                slice(lemmaOffset, lemmaLength).get(lemmaBytes);
+                writer.addList(lemmaBytes, slice(listOffset, listEnd - listOffset), buffer.getInt(entry + 12));
+            }
+
+            for (; change != null; change = iterator.hasNext() ? iterator.next() : null) {
+                addChange(writer, change);
+            }
+
+            return writer.finish();
+        }
+    }
+
+    /**
+     * Returns a part of the mapped file.
+     *
+     * @param offset Offset of the part.
+     * @param length Length of the part.
+     *
+     * @return Buffer of the part, sharing the mapping.
+     */
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer part = buffer.duplicate();
+        part.position(offset).limit(offset + length);
+        return part.slice();
+    }
+
+    /**
+     * Compares lemma bytes with lemma of the mapped file as unsigned bytes.
+     *
+     * @param bytes UTF-8 bytes of the lemma to compare.
+     * @param offset Offset of the file lemma.
+     * @param length Length of the file lemma.
+     *
+     * @return Negative, zero or positive value as the lemma is less, equal or greater than the file one.
+     */
+    private int compare(byte[] bytes, int offset, int length) {
+        int count = Math.min(bytes.length, length);
+
+        for (int i = 0; i < count; i++) {
+            int difference = (bytes[i] & 0xFF) - (buffer.get(offset + i) & 0xFF);
+
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        return bytes.length - length;
+    }
+
+    // Static methods
+
+    /**
+     * Adds new posting list of a lemma to the writer, if the lemma is not removed.
+     *
+     * @param writer Segment writer.
+     * @param change UTF-8 bytes of the lemma and its new posting list or null if the lemma is removed.
+     *
+     * @throws IOException File write error or lemmas are not sorted.
+     */
+    private static void addChange(Writer writer, Map.Entry<byte[], MemoryPostingList> change) throws IOException {
+        if (change.getValue() != null) {
+            writer.addList(change.getKey(), change.getValue());
+        }
+    }
+
+    /**
+     * Maps segment file into memory.
+     *
+     * @param path Segment file path.
+     *
+     * @return Site index of the segment.
+     *
+     * @throws IOException File read error or the file is not a segment.
+     */
+    public static SegmentSiteIndex open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " segment is too large");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a segment file");
+        }
+
+        int lemmaCount = buffer.getInt(4);
+        int dictionaryStart = buffer.getInt(8);
+        int lemmasStart = buffer.getInt(12);
+
+        if (lemmaCount < 0
+                || dictionaryStart < HEADER_SIZE
+                || (long) dictionaryStart + (long) lemmaCount * ENTRY_SIZE != lemmasStart
+                || lemmasStart > buffer.limit()
+        ) {
+            throw new IOException(path + " segment is broken");
+        }
+
+        return new SegmentSiteIndex(path, buffer, lemmaCount, dictionaryStart, lemmasStart);
+    }
+
+    /**
+     * Writes in-memory site index into a segment file and opens it.
+     *
+     * @param path Segment file path.
+     * @param siteIndex Site index to write.
+     *
+     * @return Site index of the segment written.
+     *
+     * @throws IOException File write error.
+     */
+    public static SegmentSiteIndex write(Path path, MemorySiteIndex siteIndex) throws IOException {
+        SortedMap<byte[], MemoryPostingList> lists = new TreeMap<>(Writer.LEMMA_ORDER);
+
+        siteIndex.forEach((lemma, list) -> lists.put(lemma.getBytes(StandardCharsets.UTF_8), list));
+
+        try (Writer writer = new Writer(path)) {
+            for (Map.Entry<byte[], MemoryPostingList> entry : lists.entrySet()) {
+                writer.addList(entry.getKey(), entry.getValue());
+            }
+
+            return writer.finish();
+        }
+    }
+
+    /**
+     * Streaming segment file writer.
+     * <br>
+     * Postings must be added in ascending order of lemma UTF-8 bytes and of page id within a lemma,
+     * so no more than a part of one posting list is kept in memory.
+     * <br>
+     * The file is written aside and atomically moved to its place on finish,
+     * so the segment file is never seen partially written. Files of unfinished writer are removed on close.
+     */
+    public static class Writer implements Closeable {
+        private static final int LIST_BUFFER_SIZE = 1 << 16;
+        private static final Comparator<byte[]> LEMMA_ORDER = Arrays::compareUnsigned;
+
+        private final Path path;
+        private final Path tmpPath;
+        private final Path dictionaryPath;
+        private final Path lemmasPath;
+
+        private final DataOutputStream postings;
+        private final DataOutputStream dictionary;
+        private final DataOutputStream lemmas;
+
+        private final ByteArrayOutputStream list = new ByteArrayOutputStream();
+
+        private String lemma = null;                // Lemma of the current posting list
+        private byte[] lemmaBytes = null;
+        private long position = HEADER_SIZE;       // Postings section end
+        private int listOffset = 0;
+        private int listSize = 0;
+        private int prevPageId = 0;
+        private int lemmaCount = 0;
+        private int lemmasSize = 0;
+        private boolean finished = false;
+
+        /**
+         * Constructor of writer of empty segment.
+         *
+         * @param path Segment file path.
+         *
+         * @throws IOException File creation error.
+         */
+        public Writer(Path path) throws IOException {
+            this.path = path;
+
+            tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+            dictionaryPath = path.resolveSibling(path.getFileName() + ".dictionary.tmp");
+            lemmasPath = path.resolveSibling(path.getFileName() + ".lemmas.tmp");
+
+            postings = newStream(tmpPath);
+            dictionary = newStream(dictionaryPath);
+            lemmas = newStream(lemmasPath);
+
+            postings.write(new byte[HEADER_SIZE]);   // Written on finish
+        }
+
+        /**
+         * Adds posting of a lemma.
+         *
+         * @param lemma Lemma, not less than the lemma of previous posting.
+         * @param pageId Page id, greater than page id of previous posting of the lemma.
+         * @param rank Rank of the lemma on the page.
+         *
+         * @throws IOException File write error or postings are not sorted.
+         */
+        public void add(String lemma, int pageId, float rank) throws IOException {
+            if (!lemma.equals(this.lemma)) {
+                startList(lemma, lemma.getBytes(StandardCharsets.UTF_8));
+            } else if (pageId <= prevPageId) {
+                throw new IOException("Postings of lemma " + lemma + " are not sorted by page id");
+            }
+
+            PostingCodec.writePosting(list, pageId - prevPageId, rank);
+
+            prevPageId = pageId;
+            listSize++;
+
+            if (list.size() >= LIST_BUFFER_SIZE) {
+                flushList();
+            }
+        }
+
+        /**
+         * Adds encoded posting list of a lemma.
+         *
+         * @param lemmaBytes UTF-8 bytes of the lemma, greater than the lemma of previous posting.
+         * @param postingList Posting list of the lemma.
+         *
+         * @throws IOException File write error or lemmas are not sorted.
+         */
+        void addList(byte[] lemmaBytes, MemoryPostingList postingList) throws IOException {
+            addList(lemmaBytes, ByteBuffer.wrap(postingList.getData()), postingList.size());
+        }
+
+        /**
+         * Adds encoded posting list of a lemma.
+         * <br>
+         * The list is copied by parts, so a list of any size is not kept in memory.
+         *
+         * @param lemmaBytes UTF-8 bytes of the lemma, greater than the lemma of previous posting.
+         * @param data Encoded posting list from its position to its limit.
+         * @param size Number of postings.
+         *
+         * @throws IOException File write error or lemmas are not sorted.
+         */
+        void addList(byte[] lemmaBytes, ByteBuffer data, int size) throws IOException {
+            startList(null, lemmaBytes);
+
+            byte[] part = new byte[Math.min(data.remaining(), LIST_BUFFER_SIZE)];
+
+            while (data.hasRemaining()) {
+                int length = Math.min(part.length, data.remaining());
+
+                data.get(part, 0, length);
+                list.write(part, 0, length);
+                flushList();
+            }
+
+            listSize = size;
+        }
+
+        /**
+         * Writes the file and opens the segment.
+         *
+         * @return Site index of the segment written.
+         *
+         * @throws IOException File write error.
+         */
+        public SegmentSiteIndex finish() throws IOException {
+            finishList();
+
+            postings.close();
+            dictionary.close();
+            lemmas.close();
+
+            int dictionaryStart = (int) position;
+            int lemmasStart = checkPosition(position + (long) lemmaCount * ENTRY_SIZE);
+
+            checkPosition((long) lemmasStart + lemmasSize);
+
+            try (FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.WRITE)) {
+                append(channel, dictionaryPath);
+                append(channel, lemmasPath);
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                        .putInt(MAGIC)
+                        .putInt(lemmaCount)
+                        .putInt(dictionaryStart)
+                        .putInt(lemmasStart)
+                        .flip();
+
+                channel.write(header, 0);
+                channel.force(true);
+            }
+
+            Files.move(tmpPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            finished = true;
+
+            return open(path);
+        }
+
+        /**
+         * Closes the files and removes temporary files.
+         *
+         * @throws IOException File removal error.
+         */
+        @Override
+        public void close() throws IOException {
+            postings.close();
+            dictionary.close();
+            lemmas.close();
+
+            Files.deleteIfExists(dictionaryPath);
+            Files.deleteIfExists(lemmasPath);
+
+            if (!finished) {
+                Files.deleteIfExists(tmpPath);
+            }
+        }
+
+        /**
+         * Finishes posting list of the previous lemma and starts list of a new one.
+         *
+         * @param lemma New lemma or null if it is not known as a string.
+         * @param bytes UTF-8 bytes of the new lemma.
+         *
+         * @throws IOException File write error or lemmas are not sorted.
+         */
+        private void startList(String lemma, byte[] bytes) throws IOException {
+            if (lemmaBytes != null && LEMMA_ORDER.compare(lemmaBytes, bytes) >= 0) {
+                throw new IOException("Lemma " + new String(bytes, StandardCharsets.UTF_8) + " is out of order");
+            }
+
+            finishList();
+
+            this.lemma = lemma;
+            lemmaBytes = bytes;
+            listOffset = (int) position;
+            listSize = 0;
+            prevPageId = 0;
+        }
+
+        /**
+         * Writes dictionary entry of the current lemma.
+         *
+         * @throws IOException File write error.
+         */
+        private void finishList() throws IOException {
+            if (lemmaBytes == null) {
+                return;
+            }
+
+            flushList();
+
+            dictionary.writeInt(lemmasSize);
+            dictionary.writeInt(lemmaBytes.length);
+            dictionary.writeInt(listOffset);
+            dictionary.writeInt(listSize);
+            lemmas.write(lemmaBytes);
+
+            lemmasSize += lemmaBytes.length;
+            lemmaCount++;
+            lemmaBytes = null;
+            lemma = null;
+        }
+
+        /**
+         * Writes encoded postings of the current list to the file.
+         *
+         * @throws IOException File write error.
+         */
+        private void flushList() throws IOException {
+            checkPosition(position + list.size());
+
+            list.writeTo(postings);
+            position += list.size();
+            list.reset();
+        }
+
+        /**
+         * Checks file offset fits the mapping size limit.
+         *
+         * @param offset File offset.
+         *
+         * @return Offset value.
+         *
+         * @throws IOException The offset exceeds the limit.
+         */
+        private int checkPosition(long offset) throws IOException {
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException(path + " segment is too large");
+            }
+            return (int) offset;
+        }
+
+        /**
+         * Opens buffered output file stream.
+         *
+         * @param file File path.
+         *
+         * @return Output stream.
+         *
+         * @throws IOException File creation error.
+         */
+        private static DataOutputStream newStream(Path file) throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        }
+
+        /**
+         * Appends file content to the end of the channel.
+         *
+         * @param channel Target file channel.
+         * @param file File to append.
+         *
+         * @throws IOException File read or write error.
+         */
+        private static void append(FileChannel channel, Path file) throws IOException {
+            try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = source.size();
+                long done = 0;
+
+                while (done < size) {
+                    done += channel.transferFrom(source, channel.size(), size - done);
+                }
+            }
+        }
+    }
+
+    /**
+     * Posting list of a segment, decoded directly from the mapped file.
+     */
+    private static class SegmentPostingList implements PostingList {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int size;
+
+        SegmentPostingList(ByteBuffer buffer, int offset, int size) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void forEach(PostingConsumer consumer) {
+            ByteBuffer list = buffer.duplicate();
+            list.position(offset);
+            PostingCodec.decode(list, size, consumer);
+        }
+    }
+}
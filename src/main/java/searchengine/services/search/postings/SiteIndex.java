@@ -0,0 +1,22 @@
+package searchengine.services.search.postings;
+
+/**
+ * Inverted index of a site - lemma to posting list map.
+ */
+public interface SiteIndex {
+    /**
+     * Returns postings of a lemma.
+     *
+     * @param lemma Lemma.
+     *
+     * @return Posting list or null if the lemma is not found in the site.
+     */
+    PostingList getPostings(String lemma);
+
+    /**
+     * Returns number of lemmas in the index.
+     *
+     * @return Number of lemmas.
+     */
+    int getLemmaCount();
+}
@@ -8,6 +8,7 @@ import searchengine.dao.LemmaRepository;
 import searchengine.dao.PageRepository;
 import searchengine.dao.SiteRepository;
 
+import searchengine.dto.indexing.HttpPage;
 import searchengine.dto.statistics.SiteDetailedStatistics;
 import searchengine.dto.statistics.StatisticsData;
 import searchengine.dto.statistics.StatisticsResponse;
@@ -71,14 +72,22 @@ public class StatisticsService {
             item.setPages((int) pageRepository.countBySiteIdAndCode(site.getId(), 200));
             item.setLemmas((int) lemmaRepository.countBySiteId(site.getId()));
             item.setTasks(indexingService.getSiteIndexingTaskCount(site.getUrl()));
+            item.setLemmaCache(indexingService.getSiteLemmaCacheCount(site.getUrl()));
+            item.setConditionalRequests(indexingService.getSiteConditionalRequestCount(site.getUrl()));
+            item.setNotModified(indexingService.getSiteNotModifiedCount(site.getUrl()));
 
             total.addSites(1);
             total.addPages(item.getPages());
             total.addLemmas(item.getLemmas());
             total.addTasks(item.getTasks());
+            total.addLemmaCache(item.getLemmaCache());
+            total.addConditionalRequests(item.getConditionalRequests());
+            total.addNotModified(item.getNotModified());
         }
 
         total.setIndexing(indexingService.isIndexing());
+        total.setRequests(HttpPage.getRequestCount());
+        total.setReusedConnections(HttpPage.getReusedCount());
 
         return response;
     }
@@ -32,6 +32,7 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -183,6 +184,8 @@ public class ApiTest {
     @Test
     @DisplayName("Sites Indexing Test")
     public void test_07() {
+        assertTrue(applicationSettings.getSiteMapSeeding());
+
         siteRepository.deleteAll();
 
         assertEquals(0, siteRepository.count());
@@ -195,9 +198,9 @@ public class ApiTest {
         assertEquals(200, response.getStatusCodeValue());
         assertTrue(response.getBody().isResult());
 
-        response = restTemplate.getForEntity(
-                apiLink + "waitIndexing",
-                IndexingResponseTest.class
+        response = assertTimeoutPreemptively(       // Indexing with sitemap seeding finishes
+                Duration.ofMinutes(5),
+                () -> restTemplate.getForEntity(apiLink + "waitIndexing", IndexingResponseTest.class)
         );
 
         assertEquals(200, response.getStatusCodeValue());
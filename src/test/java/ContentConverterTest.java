@@ -0,0 +1,53 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import searchengine.model.ContentConverter;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Content Converter Test")
+public class ContentConverterTest {
+    @Test
+    @DisplayName("Plain And Compressed Content")
+    public void test_01() {
+        String content = "<html><head><title>Поиск</title></head><body>"
+                + "<p>Search engine page content, поисковый движок.</p>".repeat(500)
+                + "</body></html>";
+
+        ContentConverter converter = new ContentConverter();
+
+        ContentConverter.setCompress(false);
+        byte[] plain = converter.convertToDatabaseColumn(content);
+
+        ContentConverter.setCompress(true);
+        byte[] compressed = converter.convertToDatabaseColumn(content);
+
+        ContentConverter.setCompress(false);
+
+        assertArrayEquals(content.getBytes(StandardCharsets.UTF_8), plain);
+        assertTrue(ContentConverter.isCompressed(compressed));
+        assertTrue(compressed.length * 10 < plain.length);
+
+        assertEquals(content, converter.convertToEntityAttribute(plain));
+        assertEquals(content, converter.convertToEntityAttribute(compressed));
+        assertEquals("", converter.convertToEntityAttribute(converter.convertToDatabaseColumn("")));
+    }
+
+    @Test
+    @DisplayName("Content Starting With Zero Char")
+    public void test_02() {
+        String content = "\0<html><body>Поиск</body></html>";
+        byte[] legacy = content.getBytes(StandardCharsets.UTF_8);
+
+        ContentConverter converter = new ContentConverter();
+
+        ContentConverter.setCompress(false);
+        byte[] stored = converter.convertToDatabaseColumn(content);
+
+        assertTrue(ContentConverter.isCompressed(stored));
+        assertEquals(content, converter.convertToEntityAttribute(stored));
+        assertEquals(content, converter.convertToEntityAttribute(legacy));
+    }
+}
@@ -0,0 +1,34 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import searchengine.dto.indexing.LemmaAttributes;
+import searchengine.dto.indexing.LemmaCounter;
+import searchengine.services.indexing.index.IndexTask;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Lemma Counter Test")
+public class LemmaCounterTest {
+    @Test
+    @DisplayName("Counts Match Offsets")
+    public void test_01() {
+        StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < 500; i++) {
+            text.append("word").append((char) ('a' + i % 26)).append(i % 7).append(" поиск search ");
+        }
+
+        Map<String, LemmaAttributes> lemmas = IndexTask.getTextLemmas(text.toString());
+        LemmaCounter counter = IndexTask.getTextLemmaCounts(text.toString());
+
+        assertEquals(lemmas.size(), counter.size());
+        assertEquals(lemmas.keySet(), counter.getLemmas());
+
+        lemmas.forEach((lemma, attributes) -> assertEquals((int) attributes.getRank(), counter.getCount(lemma)));
+
+        assertEquals(500, counter.getCount("search"));
+        assertEquals(0, counter.getCount("absent"));
+    }
+}
@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import searchengine.dto.indexing.LinkFrontier;
+import searchengine.dto.indexing.PathHashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Link Frontier Test")
+public class LinkFrontierTest {
+    @Test
+    @DisplayName("Spilled Links Keep Order")
+    public void test_01() throws InterruptedException {
+        LinkFrontier frontier = new LinkFrontier(10);
+
+        for (int i = 0; i < 100; i++) {
+            frontier.put("/page/" + i);
+        }
+
+        assertEquals(100, frontier.size());
+        assertEquals(90, frontier.spillSize());
+
+        frontier.putFirst("stop");
+        assertEquals("stop", frontier.take());
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals("/page/" + i, frontier.take());
+        }
+
+        for (int i = 100; i < 120; i++) {
+            frontier.put("/page/" + i);
+        }
+
+        for (int i = 50; i < 120; i++) {
+            assertEquals("/page/" + i, frontier.take());
+        }
+
+        assertEquals(0, frontier.size());
+        assertEquals(0, frontier.spillSize());
+    }
+
+    @Test
+    @DisplayName("Path Set Drops Duplicates")
+    public void test_02() {
+        PathHashSet paths = new PathHashSet();
+
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(paths.add("/page/" + i));
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            assertFalse(paths.add("/page/" + i));
+        }
+
+        assertEquals(10000, paths.size());
+    }
+}
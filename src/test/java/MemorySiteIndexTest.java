@@ -0,0 +1,192 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import searchengine.config.ApplicationSettings;
+import searchengine.services.search.postings.MemorySiteIndex;
+import searchengine.services.search.postings.PostingIndexService;
+import searchengine.services.search.postings.PostingList;
+import searchengine.services.search.postings.SegmentSiteIndex;
+import searchengine.services.search.postings.SiteIndex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Memory Site Index Test")
+public class MemorySiteIndexTest {
+    @Test
+    @DisplayName("Build And Read Postings")
+    public void test_01() {
+        MemorySiteIndex.Builder builder = new MemorySiteIndex.Builder();
+
+        builder.add("twenti", 300, 20f);
+        builder.add("twenti", 5, 1f);
+        builder.add("twenti", 100_000, 3f);
+        builder.add("двенадца", 7, 12f);
+
+        MemorySiteIndex siteIndex = builder.build();
+
+        assertEquals(2, siteIndex.getLemmaCount());
+        assertNull(siteIndex.getPostings("absent"));
+
+        PostingList postings = siteIndex.getPostings("twenti");
+        List<Integer> pageIds = new ArrayList<>();
+        List<Float> ranks = new ArrayList<>();
+
+        postings.forEach((pageId, rank) -> {
+            pageIds.add(pageId);
+            ranks.add(rank);
+        });
+
+        assertEquals(3, postings.size());
+        assertEquals(List.of(5, 300, 100_000), pageIds);
+        assertEquals(List.of(1f, 20f, 3f), ranks);
+
+        siteIndex.getPostings("двенадца").forEach((pageId, rank) -> {
+            assertEquals(7, pageId);
+            assertEquals(12f, rank);
+        });
+    }
+
+    @Test
+    @DisplayName("Segment File")
+    public void test_02(@TempDir Path directory) throws IOException {
+        MemorySiteIndex.Builder builder = new MemorySiteIndex.Builder();
+
+        for (int pageId = 1; pageId <= 1000; pageId++) {
+            builder.add("twenti", pageId * 7, pageId % 10 + 1);
+            if (pageId % 100 == 0) {
+                builder.add("двенадца", pageId, 12f);
+            }
+        }
+
+        Path path = directory.resolve("site-1.seg");
+        SegmentSiteIndex segment = SegmentSiteIndex.write(path, builder.build());
+
+        assertTrue(Files.exists(path));
+        assertFalse(Files.exists(directory.resolve("site-1.seg.tmp")));
+
+        segment = SegmentSiteIndex.open(path);
+
+        assertEquals(2, segment.getLemmaCount());
+        assertNull(segment.getPostings("absent"));
+        assertEquals(1000, segment.getPostings("twenti").size());
+        assertEquals(10, segment.getPostings("двенадца").size());
+
+        int[] count = {0};
+
+        segment.getPostings("twenti").forEach((pageId, rank) -> {
+            count[0]++;
+            assertEquals(count[0] * 7, pageId);
+            assertEquals(count[0] % 10 + 1, rank);
+        });
+
+        assertEquals(1000, count[0]);
+    }
+
+    @Test
+    @DisplayName("Segment Writer")
+    public void test_03(@TempDir Path directory) throws IOException {
+        String[] lemmas = {"a", "abc", "twenti", "zz", "двенадца", "ёж"};   // Ascending UTF-8 bytes
+        Path path = directory.resolve("site-2.seg");
+        SegmentSiteIndex segment;
+
+        try (SegmentSiteIndex.Writer writer = new SegmentSiteIndex.Writer(path)) {
+            for (int i = 0; i < lemmas.length; i++) {
+                for (int pageId = 1; pageId <= 100_000 * i + 1; pageId += 1000) {
+                    writer.add(lemmas[i], pageId, i + 1);
+                }
+            }
+            segment = writer.finish();
+        }
+
+        assertEquals(List.of(path), Files.list(directory).collect(Collectors.toList()));
+        assertEquals(lemmas.length, segment.getLemmaCount());
+
+        for (String absent : new String[]{"", "0", "ab", "abcd", "zzz", "ж", "ёжик"}) {
+            assertNull(segment.getPostings(absent));
+        }
+
+        for (int i = 0; i < lemmas.length; i++) {
+            int lemmaIndex = i;
+            int[] count = {0};
+
+            segment.getPostings(lemmas[i]).forEach((pageId, rank) -> {
+                assertEquals(count[0]++ * 1000 + 1, pageId);
+                assertEquals(lemmaIndex + 1, rank);
+            });
+
+            assertEquals(100 * i + 1, count[0]);
+            assertEquals(count[0], segment.getPostings(lemmas[i]).size());
+        }
+
+        try (SegmentSiteIndex.Writer writer = new SegmentSiteIndex.Writer(directory.resolve("site-3.seg"))) {
+            writer.add("b", 1, 1f);
+            assertThrows(IOException.class, () -> writer.add("a", 2, 1f));
+        }
+
+        assertEquals(List.of(path), Files.list(directory).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Page Postings Replacement")
+    public void test_04(@TempDir Path directory) throws IOException {
+        ApplicationSettings memorySettings = new ApplicationSettings(null, null, null);
+        ApplicationSettings segmentSettings = new ApplicationSettings(null, null, null);
+
+        memorySettings.setMemoryIndex(true);
+        segmentSettings.setSegmentPath(directory.toString());
+
+        for (ApplicationSettings settings : List.of(memorySettings, segmentSettings)) {
+            PostingIndexService service = new PostingIndexService(settings, null);
+            MemorySiteIndex.Builder builder = new MemorySiteIndex.Builder();
+
+            for (int pageId = 1; pageId <= 10; pageId++) {
+                builder.add("twenti", pageId, 1f);
+            }
+            builder.add("двенадца", 3, 12f);
+            builder.add("old", 5, 1f);
+
+            service.publish(1, builder);
+
+            MemorySiteIndex.Builder pagePostings = new MemorySiteIndex.Builder();
+
+            pagePostings.add("twenti", 11, 20f);
+            pagePostings.add("new", 11, 2f);
+            pagePostings.add("a", 11, 1f);               // Before and after all lemmas of the index
+            pagePostings.add("ёж", 11, 1f);
+
+            service.replacePages(1, Set.of(5, 11), Set.of("twenti", "old"), pagePostings);
+
+            SiteIndex siteIndex = service.getSiteIndex(1);
+            List<Integer> pageIds = new ArrayList<>();
+
+            assertEquals(5, siteIndex.getLemmaCount());
+            assertNull(siteIndex.getPostings("old"));
+
+            siteIndex.getPostings("twenti").forEach((pageId, rank) -> {
+                pageIds.add(pageId);
+                assertEquals(pageId == 11 ? 20f : 1f, rank);
+            });
+
+            assertEquals(List.of(1, 2, 3, 4, 6, 7, 8, 9, 10, 11), pageIds);
+            assertEquals(1, siteIndex.getPostings("двенадца").size());
+            assertEquals(1, siteIndex.getPostings("new").size());
+            assertEquals(1, siteIndex.getPostings("a").size());
+            assertEquals(1, siteIndex.getPostings("ёж").size());
+        }
+
+        assertEquals(
+                List.of(directory.resolve("site-1.seg")),
+                Files.list(directory).collect(Collectors.toList())
+        );
+        assertEquals(5, SegmentSiteIndex.open(directory.resolve("site-1.seg")).getLemmaCount());
+    }
+}
@@ -0,0 +1,29 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import searchengine.model.Page;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Page Entity Test")
+public class PageTest {
+    @Test
+    @DisplayName("Validators Longer Than Columns")
+    public void test_01() {
+        Page page = new Page();
+        String etag = "\"" + "a".repeat(Page.ETAG_LENGTH - 2) + "\"";
+        String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+        page.setEtag(etag);
+        page.setLastModified(lastModified);
+
+        assertEquals(etag, page.getEtag());
+        assertEquals(lastModified, page.getLastModified());
+
+        page.setEtag("W/" + etag);
+        page.setLastModified(lastModified + " ".repeat(Page.LAST_MODIFIED_LENGTH));
+
+        assertNull(page.getEtag());
+        assertNull(page.getLastModified());
+    }
+}
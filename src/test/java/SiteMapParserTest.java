@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import searchengine.dto.indexing.SiteMapParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Site Map Parser Test")
+public class SiteMapParserTest {
+    @Test
+    @DisplayName("Gzip Url Set")
+    public void test_01() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">"
+                + "<url><loc> http://site.com/a </loc><lastmod>2023-05-01</lastmod></url>"
+                + "<url><loc>http://site.com/b</loc><lastmod>2023-05-01T10:20:30+03:00</lastmod></url>"
+                + "<url><loc>http://site.com/c</loc></url>"
+                + "</urlset>";
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(xml.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Map<String, Date> pages = new LinkedHashMap<>();
+        List<String> siteMaps = new ArrayList<>();
+
+        SiteMapParser.parse(new ByteArrayInputStream(bytes.toByteArray()), pages::put, siteMaps::add);
+
+        assertEquals(List.of("http://site.com/a", "http://site.com/b", "http://site.com/c"),
+                new ArrayList<>(pages.keySet()));
+        assertEquals(SiteMapParser.parseTime("2023-05-01T00:00:00Z"), pages.get("http://site.com/a"));
+        assertEquals(SiteMapParser.parseTime("2023-05-01T07:20:30Z"), pages.get("http://site.com/b"));
+        assertNull(pages.get("http://site.com/c"));
+        assertTrue(siteMaps.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Plain Sitemap Index")
+    public void test_02() throws Exception {
+        String xml = "<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">"
+                + "<sitemap><loc>http://site.com/s1.xml.gz</loc><lastmod>2023-05-01</lastmod></sitemap>"
+                + "<sitemap><loc>http://site.com/s2.xml</loc></sitemap>"
+                + "</sitemapindex>";
+
+        Map<String, Date> pages = new LinkedHashMap<>();
+        List<String> siteMaps = new ArrayList<>();
+
+        SiteMapParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), pages::put, siteMaps::add);
+
+        assertTrue(pages.isEmpty());
+        assertEquals(List.of("http://site.com/s1.xml.gz", "http://site.com/s2.xml"), siteMaps);
+    }
+
+    @Test
+    @DisplayName("Image Sitemap")
+    public void test_03() throws Exception {
+        String xml = "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\""
+                + " xmlns:image=\"http://www.google.com/schemas/sitemap-image/1.1\">"
+                + "<url><loc>http://site.com/a</loc>"
+                + "<image:image><image:loc>http://site.com/a.jpg</image:loc></image:image>"
+                + "<lastmod>2023-05-01</lastmod></url>"
+                + "<url><image:image><image:loc>http://site.com/b.jpg</image:loc></image:image>"
+                + "<loc>http://site.com/b</loc></url>"
+                + "</urlset>";
+
+        Map<String, Date> pages = new LinkedHashMap<>();
+        List<String> siteMaps = new ArrayList<>();
+
+        SiteMapParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), pages::put, siteMaps::add);
+
+        assertEquals(List.of("http://site.com/a", "http://site.com/b"), new ArrayList<>(pages.keySet()));
+        assertEquals(SiteMapParser.parseTime("2023-05-01T00:00:00Z"), pages.get("http://site.com/a"));
+        assertTrue(siteMaps.isEmpty());
+    }
+}
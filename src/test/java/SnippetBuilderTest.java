@@ -0,0 +1,30 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import searchengine.services.search.SnippetBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Snippet Builder Test")
+public class SnippetBuilderTest {
+    @Test
+    @DisplayName("Longest Sentence With Lemmas")
+    public void test_01() {
+        SnippetBuilder snippetBuilder = new SnippetBuilder(200);
+
+        String text = "Cats sleep. Dogs are running in the house! Birds sing in the morning and fly away.";
+
+        assertEquals(
+                "Dogs are <b>running</b> in the <b>house</b>",
+                snippetBuilder.build(text, List.of("run", "hous"))
+        );
+        assertEquals(
+                "Birds sing in the morning and fly away.",
+                snippetBuilder.build(text, List.of("sing", "cat"))
+                        .replace("<b>", "").replace("</b>", "")
+        );
+        assertEquals("Cats", new SnippetBuilder(4).build(text, List.of("absent")));
+    }
+}
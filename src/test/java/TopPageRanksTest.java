@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import searchengine.services.search.TopPageRanks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Top Page Ranks Test")
+public class TopPageRanksTest {
+    @Test
+    @DisplayName("Selection Order")
+    public void test_01() {
+        TopPageRanks top = new TopPageRanks(3);
+
+        float[] ranks = {5f, 1f, 7f, 3f, 9f, 2f};
+
+        for (int i = 0; i < ranks.length; i++) {
+            top.offer(i, ranks[i]);
+        }
+
+        top.sort();
+
+        assertEquals(3, top.size());
+        assertEquals(4, top.getPageId(0));
+        assertEquals(2, top.getPageId(1));
+        assertEquals(0, top.getPageId(2));
+        assertEquals(9f, top.getRank(0));
+        assertEquals(5f, top.getRank(2));
+    }
+
+    @Test
+    @DisplayName("Random Ranks")
+    public void test_02() {
+        Random random = new Random(1);
+        TopPageRanks top = new TopPageRanks(50);
+        float[] ranks = new float[10_000];
+
+        for (int i = 0; i < ranks.length; i++) {
+            ranks[i] = random.nextFloat();
+            top.offer(i, ranks[i]);
+        }
+
+        top.sort();
+
+        float[] sorted = ranks.clone();
+        Arrays.sort(sorted);
+
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(sorted[sorted.length - 1 - i], top.getRank(i));
+            assertEquals(ranks[top.getPageId(i)], top.getRank(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Empty Selection")
+    public void test_03() {
+        TopPageRanks top = new TopPageRanks(0);
+
+        assertFalse(top.offer(1, 1f));
+        assertEquals(0, top.size());
+    }
+}
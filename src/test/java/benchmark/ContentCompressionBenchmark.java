@@ -0,0 +1,99 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import searchengine.model.ContentConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page content storage benchmark: plain UTF-8 bytes versus deflate compressed bytes.
+ * <br>
+ * Read cost applies to reindexing from stored content and to search snippets, made of the page text,
+ * stored by the same converter.
+ * <br>
+ * Run the main method with the test classpath after test-compile.
+ * Stored sizes of the content are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentCompressionBenchmark {
+    @Param({"20", "200"})
+    private int paragraphs;
+
+    private String content;
+    private byte[] plain;
+    private byte[] compressed;
+
+    @Setup
+    public void setup() {
+        String[] words = {
+                "search", "engine", "index", "page", "site", "lemma", "query", "rank",
+                "поиск", "страница", "сайт", "индекс", "запрос", "результат", "движок"
+        };
+        Random random = new Random(1);
+        StringBuilder html = new StringBuilder("<!DOCTYPE html><html><head><title>Page</title>"
+                + "<link rel=\"stylesheet\" href=\"/css/main.css\"></head><body><nav class=\"menu\">");
+
+        for (int i = 0; i < 20; i++) {
+            html.append("<a class=\"menu-item\" href=\"/section/").append(i).append("\">Section ").append(i).append("</a>");
+        }
+
+        html.append("</nav><main>");
+
+        for (int i = 0; i < paragraphs; i++) {
+            html.append("<div class=\"card\"><p class=\"text\">");
+
+            for (int j = 0; j < 60; j++) {
+                html.append(words[random.nextInt(words.length)]).append(' ');
+            }
+
+            html.append("</p><a href=\"/page/").append(random.nextInt(10000)).append("\">more</a></div>");
+        }
+
+        content = html.append("</main></body></html>").toString();
+        plain = content.getBytes(StandardCharsets.UTF_8);
+        compressed = ContentConverter.compress(content);
+
+        System.out.printf("%nContent bytes: plain %d, compressed %d, ratio %.2f%n",
+                plain.length, compressed.length, (double) plain.length / compressed.length);
+    }
+
+    @Benchmark
+    public byte[] writePlain() {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] writeCompressed() {
+        return ContentConverter.compress(content);
+    }
+
+    @Benchmark
+    public String readPlain() {
+        return new String(plain, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String readCompressed() {
+        return ContentConverter.decompress(compressed);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ContentCompressionBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
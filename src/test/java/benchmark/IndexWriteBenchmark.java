@@ -0,0 +1,131 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import searchengine.model.Index;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page index records writing benchmark: one insert per record versus batch statements.
+ * <br>
+ * Score is number of pages written per second.
+ * Requires MySQL database, connection is set by system properties
+ * benchmark.url, benchmark.username and benchmark.password.
+ * The database must not be the application one, the benchmark creates and empties its index table.
+ * <br>
+ * Run the main method with the test classpath after test-compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexWriteBenchmark {
+    private static final int LEMMAS_PER_PAGE = 300;
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private List<Index> pageIndexes;
+    private int pageId = 0;
+
+    @Setup
+    public void setup() {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty(
+                        "benchmark.url",
+                        "jdbc:mysql://localhost:3306/search_engine_benchmark"
+                                + "?createDatabaseIfNotExist=true&rewriteBatchedStatements=true"
+                ),
+                System.getProperty("benchmark.username", "root"),
+                System.getProperty("benchmark.password", ""),
+                true
+        );
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS `index` ("
+                + "id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, page_id INT, lemma_id INT, `rank` FLOAT NOT NULL)");
+        jdbcTemplate.execute("TRUNCATE TABLE `index`");
+
+        Index.setJdbcTemplate(jdbcTemplate);
+
+        pageIndexes = new ArrayList<>(LEMMAS_PER_PAGE);
+
+        for (int i = 0; i < LEMMAS_PER_PAGE; i++) {
+            Index index = new Index();
+            index.setLemmaId(i);
+            index.setRank((float) (i % 5 + 1));
+            pageIndexes.add(index);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    /**
+     * Former writing - one insert statement per record with generated key returned.
+     */
+    @Benchmark
+    public void singleInserts() {
+        int page = nextPage();
+
+        for (Index index : pageIndexes) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO `index` (page_id, lemma_id, `rank`) VALUES (?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS
+                );
+                statement.setInt(1, page);
+                statement.setInt(2, index.getLemmaId());
+                statement.setFloat(3, index.getRank());
+                return statement;
+            }, new GeneratedKeyHolder());
+        }
+    }
+
+    /**
+     * Batch statements writing.
+     */
+    @Benchmark
+    public void batchInsert() {
+        nextPage();
+        Index.insert(pageIndexes, batchSize);
+    }
+
+    /**
+     * Sets page id of the index records to the next one.
+     *
+     * @return Page id.
+     */
+    private int nextPage() {
+        pageId++;
+        pageIndexes.forEach(index -> index.setPageId(pageId));
+        return pageId;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(IndexWriteBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,128 @@
+package benchmark;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.classic.ClassicAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.LengthFilter;
+import org.apache.lucene.analysis.miscellaneous.WordDelimiterFilter;
+import org.apache.lucene.analysis.miscellaneous.WordDelimiterIterator;
+import org.apache.lucene.analysis.pattern.PatternReplaceFilter;
+import org.apache.lucene.analysis.snowball.SnowballFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.tartarus.snowball.ext.EnglishStemmer;
+import org.tartarus.snowball.ext.RussianStemmer;
+
+import searchengine.dto.indexing.LemmaAttributes;
+import searchengine.services.indexing.index.IndexTask;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Text lemmatization benchmark: analyzer chain created per call versus reused one.
+ * <br>
+ * Run the main method with the test classpath after test-compile,
+ * the gc profiler reports allocation rate per operation (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LemmaAnalyzerBenchmark {
+    @Param({"sentence", "page"})
+    private String textSize;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        String sentence = "Search engines crawl sites, index pages and rank поисковые результаты по запросу. ";
+
+        text = textSize.equals("page") ? sentence.repeat(200) : sentence;
+    }
+
+    @Benchmark
+    public Map<String, LemmaAttributes> newChain() {
+        return getTextLemmasNewChain(text);
+    }
+
+    @Benchmark
+    public Map<String, LemmaAttributes> reusedChain() {
+        return IndexTask.getTextLemmas(text);
+    }
+
+    /**
+     * Former lemmatization creating the analyzer chain for every text.
+     *
+     * @param text Text to extract lemmas from.
+     *
+     * @return Map of lemmas to their attributes.
+     */
+    private static Map<String, LemmaAttributes> getTextLemmasNewChain(String text) {
+        Map<String, LemmaAttributes> index = new HashMap<>();
+
+        try (
+                Analyzer analyzer = new ClassicAnalyzer();
+                TokenStream tokenStream = analyzer.tokenStream(null, text);
+                TokenStream wordStream = new WordDelimiterFilter(
+                        tokenStream,
+                        WordDelimiterIterator.DEFAULT_WORD_DELIM_TABLE,
+                        0,
+                        null
+                );
+                TokenStream stopStream = new StopFilter(wordStream, IndexTask.getStopWords());
+                TokenStream engStream = new SnowballFilter(stopStream, new EnglishStemmer());
+                TokenStream rusStream = new SnowballFilter(engStream, new RussianStemmer());
+                TokenStream replaceStream01 = new PatternReplaceFilter(
+                        rusStream,
+                        Pattern.compile("\\d{5,}"),
+                        "",
+                        true
+                );
+                TokenStream replaceStream02 = new PatternReplaceFilter(
+                        replaceStream01,
+                        Pattern.compile("^\\d{1,3}$"),
+                        "",
+                        true
+                );
+                TokenStream stream = new LengthFilter(replaceStream02, 2, 255)
+        ) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            OffsetAttribute offset = stream.addAttribute(OffsetAttribute.class);
+
+            stream.reset();
+            while (stream.incrementToken()) {
+                index.compute(term.toString(), (k, v) -> v == null
+                        ? new LemmaAttributes(offset)
+                        : v.add(offset)
+                );
+            }
+            stream.end();
+        } catch (IOException ignored) {}
+
+        return index;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LemmaAnalyzerBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,122 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import searchengine.dto.indexing.LemmaOffset;
+import searchengine.services.search.SnippetBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snippet formatting benchmark: regex trimming versus word bounds window on long sentences.
+ * <br>
+ * Run the main method with the test classpath after test-compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnippetBenchmark {
+    private static final int SNIPPET_SIZE = 200;
+
+    @Param({"100", "1000", "5000"})
+    private int wordCount;
+
+    private String sentence;
+    private List<LemmaOffset> offsets;
+    private SnippetBuilder snippetBuilder;
+
+    @Setup
+    public void setup() {
+        StringBuilder text = new StringBuilder();
+        offsets = new ArrayList<>();
+
+        for (int i = 0; i < wordCount; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            if (i == wordCount / 2 || i == wordCount / 2 + 3) {
+                offsets.add(new LemmaOffset(text.length(), text.length() + 6));
+                text.append("search");
+            } else {
+                text.append("word").append(i % 10);
+            }
+        }
+
+        offsets.sort(Comparator.comparingInt(LemmaOffset::getStart).reversed());
+        sentence = text.toString();
+        snippetBuilder = new SnippetBuilder(SNIPPET_SIZE);
+    }
+
+    @Benchmark
+    public String regexFormat() {
+        return regexFormat(sentence, offsets);
+    }
+
+    @Benchmark
+    public String windowFormat() {
+        return snippetBuilder.format(sentence, offsets);
+    }
+
+    /**
+     * Former regex based snippet formatting.
+     *
+     * @param text Text to be formatted.
+     * @param offsetList Lemmas offset list sorted in reverse order by start index.
+     *
+     * @return Snippet.
+     */
+    private static String regexFormat(String text, Collection<LemmaOffset> offsetList) {
+        int minStart = offsetList.stream().map(LemmaOffset::getStart).reduce(text.length(), Math::min);
+        int maxEnd = offsetList.stream().map(LemmaOffset::getEnd).reduce(-1, Math::max);
+        int shift = 0;
+
+        while (text.length() > SNIPPET_SIZE && text.matches(".*\\S\\s+\\S.*")) {
+            if (shift < minStart && minStart - shift > text.length() + shift - maxEnd) {
+                String string = text.replaceAll("^\\s*\\S+\\s+", "");
+
+                if (shift + text.length() - string.length() <= minStart) {
+                    shift += text.length() - string.length();
+                    text = string;
+                } else {
+                    text = text.substring(minStart - shift);
+                    shift = minStart;
+                }
+            } else {
+                text = text.replaceAll("\\s+\\S+\\s*$", "");
+            }
+        }
+
+        for (LemmaOffset offset : offsetList) {
+            if (offset.getEnd() - shift <= text.length() && offset.getStart() >= shift) {
+                text = new StringBuilder()
+                        .append(text, 0, offset.getStart() - shift)
+                        .append("<b>")
+                        .append(text, offset.getStart() - shift, offset.getEnd() - shift)
+                        .append("</b>")
+                        .append(text.substring(offset.getEnd() - shift))
+                        .toString();
+            }
+        }
+
+        return text;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SnippetBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}